@@ -0,0 +1,89 @@
+package bf.isge.gsn.benchmark;
+
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks des requêtes BookRepository, sans cache ni index en mémoire
+ * Sert de référence pour mesurer le gain des couches au-dessus (BookService)
+ *
+ * Lancement : mvn -Pbenchmark verify -Djmh.args="BookRepositoryBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class BookRepositoryBenchmark {
+
+    private static final String TITRE = "harmattan";
+    private static final String AUTEUR = "zongo";
+    private static final BigDecimal MAX_PRIX = new BigDecimal("1000");
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    private static final Limit CURSOR_PAGE = Limit.of(20);
+
+    private BookRepository bookRepository;
+    private int rows;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        bookRepository = catalog.bean(BookRepository.class);
+        rows = catalog.rows;
+    }
+
+    @Benchmark
+    public Optional<Book> findById() {
+        return bookRepository.findById(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public Page<Book> findByTitreContaining() {
+        return bookRepository.findByTitreRechercheContaining(TITRE, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Book> findByAuteurContaining() {
+        return bookRepository.findByAuteurRechercheContaining(AUTEUR, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Book> findByTitreAndAuteurContaining() {
+        return bookRepository.findByTitreAndAuteurContaining(TITRE, AUTEUR, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Book> findByPrixLessThanEqual() {
+        return bookRepository.findByPrixLessThanEqual(MAX_PRIX, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Book> findAllOffset() {
+        return bookRepository.findAll(PageRequest.of(rows / 40, 20));
+    }
+
+    @Benchmark
+    public List<Book> findAllKeyset() {
+        return bookRepository.findByIdGreaterThanOrderByIdAsc((long) rows / 2, CURSOR_PAGE);
+    }
+}
@@ -0,0 +1,122 @@
+package bf.isge.gsn.benchmark;
+
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de BookService : lecture par id, recherches (index en mémoire) et pagination
+ * Les recherches ne passent pas par le cache des résultats (désactivé par CatalogState) ;
+ * seul getBookByIdCached mesure un accès en cache
+ *
+ * Lancement : mvn -Pbenchmark verify -Djmh.args="BookServiceBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx4g"})
+public class BookServiceBenchmark {
+
+    private static final String TITRE = "harmattan";
+    private static final String AUTEUR = "zongo";
+    private static final BigDecimal MAX_PRIX = new BigDecimal("1000");
+    private static final BigDecimal MIN_PRIX = new BigDecimal("149000");
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    private static final Pageable FIRST_PAGE_BY_TITRE = PageRequest.of(0, 20, Sort.by("titre"));
+
+    private BookService bookService;
+    private int rows;
+    private Pageable deepPage;
+
+    @Setup
+    public void setUp(CatalogState catalog) {
+        bookService = catalog.bean(BookService.class);
+        rows = catalog.rows;
+        deepPage = PageRequest.of(rows / 40, 20, Sort.by("id"));
+    }
+
+    @Benchmark
+    public Book getBookById() {
+        return bookService.getBookById(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public Book getBookByIdCached() {
+        return bookService.getBookById(1L);
+    }
+
+    @Benchmark
+    public List<Book> searchByTitre() {
+        return bookService.searchByTitre(TITRE);
+    }
+
+    @Benchmark
+    public Page<Book> searchByTitrePaged() {
+        return bookService.searchByTitre(TITRE, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public List<Book> searchByAuteur() {
+        return bookService.searchByAuteur(AUTEUR);
+    }
+
+    @Benchmark
+    public Page<Book> searchByAuteurPaged() {
+        return bookService.searchByAuteur(AUTEUR, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Book> searchByTitreAndAuteurPaged() {
+        return bookService.searchByTitreAndAuteur(TITRE, AUTEUR, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public List<Book> searchByMaxPrice() {
+        return bookService.searchByMaxPrice(MAX_PRIX);
+    }
+
+    @Benchmark
+    public Page<Book> searchByMaxPricePaged() {
+        return bookService.searchByMaxPrice(MAX_PRIX, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public List<Book> searchByMinPrice() {
+        return bookService.searchByMinPrice(MIN_PRIX);
+    }
+
+    @Benchmark
+    public Page<Book> searchByMinPricePaged() {
+        return bookService.searchByMinPrice(MIN_PRIX, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<Book> getAllBooksFirstPage() {
+        return bookService.getAllBooks(FIRST_PAGE_BY_TITRE);
+    }
+
+    @Benchmark
+    public Page<Book> getAllBooksDeepPage() {
+        return bookService.getAllBooks(deepPage);
+    }
+}
@@ -0,0 +1,152 @@
+package bf.isge.gsn.benchmark;
+
+import bf.isge.gsn.BookStoreApplication;
+import bf.isge.gsn.cache.BookCache;
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.entity.BookNormalizationListener;
+import bf.isge.gsn.search.BookIndexMaintainer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Application démarrée sur une base H2 en mémoire, remplie avec {@code rows} livres
+ *
+ * - Un contexte Spring par fork JMH (donc par valeur de {@code rows})
+ * - Insertion directe en JDBC batch (colonnes normalisées comprises, calculées par
+ *   BookNormalizationListener.apply), puis reconstruction des index en mémoire
+ * - Données déterministes (graine fixe) : les runs sont comparables entre eux
+ * - Cache des résultats de recherche désactivé : chaque appel exécute la recherche
+ * - Index plein texte dans un répertoire temporaire, supprimé en fin de trial : l'index
+ *   de l'application (./data/fulltext) n'est jamais ouvert, donc jamais purgé
+ */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+    private static final int INSERT_BATCH_SIZE = 5000;
+
+    /** Mots utilisés pour composer les titres */
+    static final String[] WORDS = {
+            "soleil", "nuit", "savane", "fleuve", "mémoire", "voyage", "village", "étoile", "parole", "silence",
+            "histoire", "chemin", "pluie", "harmattan", "terre", "lumière", "enfant", "marché", "roi", "masque",
+            "tambour", "griot", "liberté", "désert", "baobab", "forêt", "orage", "promesse", "secret", "frontière",
+            "ombre", "aube", "royaume", "récit", "poussière", "source", "lettre", "exil", "retour", "saison",
+            "légende", "sagesse", "colline", "ville", "jardin", "colère", "fête", "espoir", "miroir", "destin"
+    };
+
+    static final String[] FIRST_NAMES = {
+            "Norbert", "Aminata", "Joseph", "Monique", "Ahmadou", "Fatou", "Boubacar", "Mariama", "Pierre", "Awa",
+            "Issa", "Salimata", "Jacques", "Adama", "Rasmata", "Moussa", "Ousmane", "Kadiatou", "Paul", "Habibou"
+    };
+
+    static final String[] LAST_NAMES = {
+            "ZONGO", "TRAORÉ", "KI-ZERBO", "OUÉDRAOGO", "KOUROUMA", "SANKARA", "DIALLO", "BÂ", "KABORÉ", "SOMÉ",
+            "COMPAORÉ", "KONATÉ", "SAWADOGO", "ILBOUDO", "NIKIÉMA", "YAMÉOGO", "ZERBO", "TAPSOBA", "SANOU", "BAMBARA"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    public ConfigurableApplicationContext context;
+
+    private Path fullTextDirectory;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        fullTextDirectory = Files.createTempDirectory("benchmark-fulltext");
+        context = new SpringApplicationBuilder(BookStoreApplication.class).run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--bookstore.search.fulltext.directory=" + fullTextDirectory,
+                // Recherches mesurées à chaque appel, pas servies par SearchResultCache (arguments constants)
+                "--bookstore.cache.search.maximum-size=0",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.bf.isge.gsn=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+
+        seed(context.getBean(JdbcTemplate.class), rows);
+
+        // Les index ont été construits sur une table vide au démarrage
+        context.getBean(BookIndexMaintainer.class).rebuild();
+        context.getBean(BookCache.class).clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        if (context != null) {
+            context.close();
+        }
+        if (fullTextDirectory != null) {
+            try (Stream<Path> paths = Files.walk(fullTextDirectory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                    try {
+                        Files.delete(path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int rows) {
+        Random random = new Random(42);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 1; i <= rows; i++) {
+            Book book = book(random, i);
+            BookNormalizationListener.apply(book);
+            batch.add(new Object[]{(long) i, book.getTitre(), book.getAuteur(), book.getPrix(),
+                    book.getTitreRecherche(), book.getAuteurRecherche(), book.getTitreTri(), book.getAuteurTri()});
+            if (batch.size() == INSERT_BATCH_SIZE || i == rows) {
+                jdbcTemplate.batchUpdate("INSERT INTO books (id, titre, auteur, prix, titre_recherche, auteur_recherche, "
+                        + "titre_tri, auteur_tri) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE books_seq RESTART WITH " + (rows + 1));
+    }
+
+    /**
+     * Livre pseudo-aléatoire ; le suffixe garantit l'unicité du titre
+     */
+    static Book book(Random random, long id) {
+        String titre = WORDS[random.nextInt(WORDS.length)] + " "
+                + WORDS[random.nextInt(WORDS.length)] + " "
+                + WORDS[random.nextInt(WORDS.length)] + " n°" + id;
+        String auteur = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        BigDecimal prix = BigDecimal.valueOf(500 + random.nextInt(14_950_000), 2);
+        Book book = new Book();
+        book.setId(id);
+        book.setTitre(titre);
+        book.setAuteur(auteur);
+        book.setPrix(prix);
+        book.setVersion(0L);
+        return book;
+    }
+}
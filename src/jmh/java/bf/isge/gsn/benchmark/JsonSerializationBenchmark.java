@@ -0,0 +1,64 @@
+package bf.isge.gsn.benchmark;
+
+import bf.isge.gsn.entity.Book;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de la sérialisation JSON d'une Page&lt;Book&gt; (corps des réponses paginées)
+ * Indépendant de la base : seule la taille de page compte
+ *
+ * Lancement : mvn -Pbenchmark verify -Djmh.args="JsonSerializationBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<Book> page;
+
+    @Setup
+    public void setUp() {
+        // Même configuration par défaut que l'ObjectMapper de Spring Boot
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Random random = new Random(42);
+        List<Book> books = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            books.add(CatalogState.book(random, i));
+        }
+        page = new PageImpl<>(books, PageRequest.of(0, pageSize), 1_000_000L);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
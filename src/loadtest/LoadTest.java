@@ -0,0 +1,263 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Test de charge HTTP en boucle fermée : N clients simultanés, chacun enchaîne ses requêtes
+ *
+ * Chaque client est un thread virtuel (Java 21 requis) : 10 000 clients ne coûtent que leur pile.
+ * Mélange de requêtes qui atteignent la base :
+ * - GET /api/books/{id} sur un id aléatoire (le cache ne couvre qu'une partie du catalogue)
+ * - GET /api/books/search sur une plage de prix aléatoire (une requête SQL paginée)
+ *
+ * Lancement : java src/loadtest/LoadTest.java --url http://localhost:8080 --clients 1000 --duration 30s
+ * Options : --user, --password, --warmup, --seed (livres à créer avant le test), --label, --csv
+ */
+public class LoadTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int SEED_BATCH_SIZE = 50_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        String label = options.getOrDefault("label", "default");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        Duration measure = duration(options.getOrDefault("duration", "30s"));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "0"));
+        String authorization = "Basic " + Base64.getEncoder().encodeToString(
+                (options.getOrDefault("user", "admin") + ":" + options.getOrDefault("password", "admin123"))
+                        .getBytes(StandardCharsets.UTF_8));
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        if (seed > 0) {
+            seed(client, url, authorization, seed);
+        }
+        long maxId = count(client, url, authorization);
+        if (maxId == 0) {
+            throw new IllegalStateException("Catalogue vide : relancer avec --seed 50000");
+        }
+
+        Result result = run(client, url, authorization, clients, warmup, measure, maxId);
+        String line = result.format(label, clients);
+        System.out.println(line);
+        if (options.containsKey("csv")) {
+            Path csv = Path.of(options.get("csv"));
+            if (!Files.exists(csv)) {
+                Files.writeString(csv, Result.CSV_HEADER + System.lineSeparator());
+            }
+            Files.writeString(csv, result.csv(label, clients) + System.lineSeparator(), StandardOpenOption.APPEND);
+        }
+        System.exit(0);
+    }
+
+    private static Result run(HttpClient client, String url, String authorization, int clients,
+                              Duration warmup, Duration measure, long maxId) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + measure.toNanos();
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder ioErrors = new LongAdder();
+        List<long[]> latencies = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            latencies.add(new long[256]);
+        }
+        int[] sizes = new int[clients];
+
+        System.out.printf("%d client(s), montée en charge %s, mesure %s...%n", clients, warmup, measure);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int index = i;
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (true) {
+                        long sent = System.nanoTime();
+                        if (sent >= end) {
+                            return;
+                        }
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(url + nextPath(random, maxId)))
+                                .header("Authorization", authorization)
+                                .header("Accept", "application/json")
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        int status;
+                        try {
+                            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            status = -1;
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        long received = System.nanoTime();
+                        if (sent < measureFrom || received > end) {
+                            continue;
+                        }
+                        if (status < 0) {
+                            ioErrors.increment();
+                        } else {
+                            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+                        }
+                        long[] samples = latencies.get(index);
+                        if (sizes[index] == samples.length) {
+                            samples = Arrays.copyOf(samples, samples.length * 2);
+                            latencies.set(index, samples);
+                        }
+                        samples[sizes[index]++] = received - sent;
+                    }
+                });
+            }
+        }
+
+        int total = Arrays.stream(sizes).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int i = 0; i < clients; i++) {
+            System.arraycopy(latencies.get(i), 0, all, offset, sizes[i]);
+            offset += sizes[i];
+        }
+        Arrays.sort(all);
+        Map<Integer, Long> byStatus = new HashMap<>();
+        statuses.forEach((status, count) -> byStatus.put(status, count.sum()));
+        return new Result(all, byStatus, ioErrors.sum(), measure);
+    }
+
+    private static String nextPath(ThreadLocalRandom random, long maxId) {
+        if (random.nextBoolean()) {
+            return "/api/books/" + (1 + random.nextLong(maxId));
+        }
+        int min = 5 + random.nextInt(149_000);
+        return "/api/books/search?minPrix=" + min + "&maxPrix=" + (min + 500) + "&size=20";
+    }
+
+    private static long count(HttpClient client, String url, String authorization) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/api/books/count"))
+                .header("Authorization", authorization)
+                .GET()
+                .build();
+        return Long.parseLong(client.send(request, HttpResponse.BodyHandlers.ofString()).body().trim());
+    }
+
+    /**
+     * Crée des livres pseudo-aléatoires via POST /api/books/batch (NDJSON)
+     */
+    private static void seed(HttpClient client, String url, String authorization, int books) throws Exception {
+        Random random = new Random(42);
+        String suffix = Long.toString(System.currentTimeMillis(), 36);
+        for (int from = 0; from < books; from += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, books); i++) {
+                body.append(String.format(Locale.ROOT,
+                        "{\"titre\":\"Livre de charge %s-%d\",\"auteur\":\"Auteur %d\",\"prix\":%d.%02d}%n",
+                        suffix, i, random.nextInt(500), 5 + random.nextInt(149_990), random.nextInt(100)));
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url + "/api/books/batch"))
+                    .header("Authorization", authorization)
+                    .header("Content-Type", NDJSON)
+                    .timeout(Duration.ofMinutes(5))
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status != 200) {
+                throw new IllegalStateException("Échec de l'import (HTTP " + status + ")");
+            }
+            System.out.printf("Import: %d/%d livre(s)%n", Math.min(from + SEED_BATCH_SIZE, books), books);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Option attendue : " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * 30s, 2m ou 500ms
+     */
+    private static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Durée invalide : " + value);
+        };
+    }
+
+    private record Result(long[] latencies, Map<Integer, Long> statuses, long ioErrors, Duration measure) {
+
+        static final String CSV_HEADER = "mode,clients,requests,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms,ok,http_503,other_errors,io_errors";
+
+        double throughput() {
+            return latencies.length / (measure.toMillis() / 1000.0);
+        }
+
+        double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(p * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        long ok() {
+            return statuses.entrySet().stream()
+                    .filter(e -> e.getKey() < 400 || e.getKey() == 404)
+                    .mapToLong(Map.Entry::getValue).sum();
+        }
+
+        long unavailable() {
+            return statuses.getOrDefault(503, 0L);
+        }
+
+        long otherErrors() {
+            return latencies.length - ioErrors - ok() - unavailable();
+        }
+
+        String format(String label, int clients) {
+            return String.format(Locale.ROOT,
+                    "[%s] %d clients : %d requêtes, %.0f req/s, p50 %.1f ms, p99 %.1f ms, p999 %.1f ms, max %.1f ms, "
+                            + "ok %d, 503 %d, autres erreurs %d, erreurs réseau %d",
+                    label, clients, latencies.length, throughput(), percentile(0.5), percentile(0.99),
+                    percentile(0.999), percentile(1.0), ok(), unavailable(), otherErrors(), ioErrors);
+        }
+
+        String csv(String label, int clients) {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.0f,%.1f,%.1f,%.1f,%.1f,%d,%d,%d,%d",
+                    label, clients, latencies.length, throughput(), percentile(0.5), percentile(0.99),
+                    percentile(0.999), percentile(1.0), ok(), unavailable(), otherErrors(), ioErrors);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Compare les deux modes d'exécution (threads de plateforme / threads virtuels) à 1 000, 5 000 et 10 000 clients
+#
+# Usage : JAVA_HOME=/chemin/vers/jdk-21 src/loadtest/compare-threading-modes.sh [clients...]
+# Variables : SEED (livres créés, 50000), WARMUP (10s), DURATION (30s), PORT (8080), DB_URL (H2 en mémoire)
+# Résultats : target/loadtest/results.csv (une ligne par mode et par niveau de charge)
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+
+if [ $# -gt 0 ]; then CLIENTS=("$@"); else CLIENTS=(1000 5000 10000); fi
+SEED=${SEED:-50000}
+WARMUP=${WARMUP:-10s}
+DURATION=${DURATION:-30s}
+PORT=${PORT:-8080}
+DB_URL=${DB_URL:-jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1}
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+OUT=target/loadtest
+JAR=target/gestion-livres-0.0.1-SNAPSHOT.jar
+
+if [ "$("$JAVA" -XshowSettings:properties -version 2>&1 | awk -F'= ' '/java.specification.version/ {print $2}')" -lt 21 ]; then
+    echo "Java 21 requis (JAVA_HOME)" >&2
+    exit 1
+fi
+
+# 10 000 clients = 10 000 sockets de chaque côté
+ulimit -n 65536 2>/dev/null || echo "Attention : ulimit -n limité à $(ulimit -n)" >&2
+
+mvn -B -q -Pjdk21 -DskipTests clean package
+mkdir -p "$OUT"
+rm -f "$OUT/results.csv"
+
+APP_PID=
+stop_app() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+for MODE in platform virtual-threads; do
+    PROFILE=$([ "$MODE" = virtual-threads ] && echo virtual-threads || echo default)
+    "$JAVA" -jar "$JAR" --server.port="$PORT" --spring.profiles.active="$PROFILE" \
+        --spring.datasource.url="$DB_URL" --logging.level.bf.isge.gsn=WARN > "$OUT/app-$MODE.log" 2>&1 &
+    APP_PID=$!
+    # Prêt quand le compte admin (créé après le démarrage) est utilisable
+    until curl -sf -u admin:admin123 "http://localhost:$PORT/api/books/count" > /dev/null; do
+        kill -0 "$APP_PID" 2>/dev/null || { tail -40 "$OUT/app-$MODE.log"; exit 1; }
+        sleep 1
+    done
+
+    SEED_ARGS=(--seed "$SEED")
+    for N in "${CLIENTS[@]}"; do
+        "$JAVA" src/loadtest/LoadTest.java --url "http://localhost:$PORT" --label "$MODE" --clients "$N" \
+            --warmup "$WARMUP" --duration "$DURATION" --csv "$OUT/results.csv" "${SEED_ARGS[@]}"
+        SEED_ARGS=()
+    done
+    stop_app
+done
+
+echo
+column -s, -t < "$OUT/results.csv" 2>/dev/null || cat "$OUT/results.csv"
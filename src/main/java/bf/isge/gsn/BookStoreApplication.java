@@ -2,12 +2,15 @@ package bf.isge.gsn;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Classe principale de l'application BookStore
  * Démarrage de l'application Spring Boot
+ * Tâches planifiées activées (contrôle des statistiques du catalogue)
  */
 @SpringBootApplication
+@EnableScheduling
 public class BookStoreApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,100 @@
+package bf.isge.gsn.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Cache des authentifications réussies (HTTP Basic, formulaire)
+ *
+ * Évite, pour des appels répétés avec les mêmes identifiants, la requête
+ * AppUserRepository.findByUsername et la vérification BCrypt.
+ *
+ * - clé : HMAC-SHA256 (clé secrète aléatoire, propre au processus) de username + mot de passe ;
+ *   le mot de passe en clair n'est jamais conservé
+ * - durée de vie courte et taille bornée
+ * - invalidation explicite après le commit quand un AppUser est modifié ou supprimé (AppUserCacheListener)
+ */
+@Component
+@Slf4j
+public class AuthenticationCache implements MeterBinder {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final Cache<String, Authentication> cache;
+    private final SecretKeySpec secret;
+
+    public AuthenticationCache(@Value("${bookstore.cache.authentication.maximum-size:10000}") long maximumSize,
+                               @Value("${bookstore.cache.authentication.expire-after-write:60s}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, HMAC);
+        log.info("Cache d'authentification: {} entrées max, expiration après {}", maximumSize, expireAfterWrite);
+    }
+
+    /**
+     * Authentification déjà validée pour ces identifiants, ou null
+     */
+    public Authentication get(String username, String password) {
+        return cache.getIfPresent(key(username, password));
+    }
+
+    public void put(String username, String password, Authentication authentication) {
+        cache.put(key(username, password), authentication);
+    }
+
+    /**
+     * Invalide toutes les entrées d'un utilisateur (changement de mot de passe ou de rôle)
+     */
+    public void invalidate(String username) {
+        cache.asMap().values().removeIf(authentication -> authentication.getName().equals(username));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Expose les compteurs du cache dans Micrometer (cache.gets, cache.evictions...)
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "authentication");
+    }
+
+    private String key(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(secret);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponible", e);
+        }
+    }
+}
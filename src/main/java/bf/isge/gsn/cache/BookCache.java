@@ -0,0 +1,104 @@
+package bf.isge.gsn.cache;
+
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.event.BookChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache en lecture des livres par identifiant (read-through)
+ *
+ * - borné en taille et en durée de vie (éviction LRU/TTL par Caffeine)
+ * - invalidé après chaque écriture validée (BookChangedEvent)
+ * - renvoie des copies : l'appelant peut modifier le livre sans altérer le cache
+ *
+ * L'invalidation ne concerne que les écritures de cette instance : avec plusieurs instances,
+ * une écriture faite ailleurs reste invisible (getBookById, ETag/Last-Modified du livre) jusqu'à
+ * l'expiration de l'entrée. La durée de vie est donc courte (quelques secondes).
+ *
+ * Le chargement d'une clé est atomique : une invalidation concurrente attend
+ * la fin du chargement, une valeur lue avant le commit ne peut donc pas survivre
+ * à l'invalidation qui le suit.
+ */
+@Component
+@Slf4j
+public class BookCache implements MeterBinder {
+
+    private final Cache<Long, Book> cache;
+
+    public BookCache(@Value("${bookstore.cache.books.maximum-size:10000}") long maximumSize,
+                     @Value("${bookstore.cache.books.expire-after-write:5s}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        log.info("Cache des livres: {} entrées max, expiration après {}", maximumSize, expireAfterWrite);
+    }
+
+    /**
+     * Renvoie le livre depuis le cache, ou le charge via le loader en cas d'absence
+     * @param id l'identifiant du livre
+     * @param loader chargement depuis la base (peut lever une exception, rien n'est alors mis en cache)
+     * @return une copie du livre
+     */
+    public Book get(Long id, Function<Long, Book> loader) {
+        // Le cache conserve sa propre copie, jamais l'entité managée renvoyée par le loader
+        Book cached = cache.get(id, key -> BookChangedEvent.snapshot(loader.apply(key)));
+        return BookChangedEvent.snapshot(cached);
+    }
+
+    /**
+     * Livre en cache, sans chargement ni effet sur les statistiques ou l'éviction
+     * @return une copie, ou null si absent
+     */
+    public Book peek(Long id) {
+        return BookChangedEvent.snapshot(cache.policy().getIfPresentQuietly(id));
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Invalide l'entrée après toute écriture validée sur le livre
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        evict(event.getBookId());
+    }
+
+    /**
+     * Compteurs cumulés (succès, échecs, évictions...)
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Expose les compteurs du cache dans Micrometer (cache.gets, cache.evictions...)
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "books");
+    }
+}
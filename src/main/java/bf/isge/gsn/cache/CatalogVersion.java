@@ -0,0 +1,134 @@
+package bf.isge.gsn.cache;
+
+import bf.isge.gsn.datasource.DataSourceRouting;
+import bf.isge.gsn.event.BookChangedEvent;
+import bf.isge.gsn.repository.BookRepository;
+import bf.isge.gsn.repository.BookRepository.CatalogFingerprint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version du catalogue
+ *
+ * - génération locale, incrémentée après chaque écriture validée (BookChangedEvent) : clé du cache
+ *   des recherches et contrôle des statistiques, propres à l'instance
+ * - jeton des requêtes conditionnelles sur les collections (liste, recherches, comptage) : empreinte
+ *   de la table books (BookRepository.fingerprintCatalog), donc le même sur toutes les instances ;
+ *   une écriture faite sur une autre instance change le jeton de celle-ci
+ *
+ * L'empreinte (parcours complet de la table) est relue au plus une fois par
+ * bookstore.http.catalog-version.refresh-interval, quel que soit le nombre d'écritures : le jeton
+ * d'une instance peut retarder d'au plus cet intervalle sur une écriture faite ailleurs.
+ * Après une écriture locale, en attendant la relecture, le jeton est provisoire : empreinte
+ * précédente suffixée de l'identifiant de l'instance et de la génération. Jamais de 304 périmé
+ * sur l'instance qui a écrit ; les autres instances y voient un jeton différent (réponse 200).
+ *
+ * Tant que le jeton n'a pas changé, une collection peut être servie en 304 sans exécuter la requête.
+ */
+@Component
+@Slf4j
+public class CatalogVersion {
+
+    private final BookRepository bookRepository;
+    private final long refreshNanos;
+    /** Distingue les jetons provisoires de deux instances ayant la même génération */
+    private final String instanceId = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Stamp stamp;
+
+    public CatalogVersion(BookRepository bookRepository,
+                          @Value("${bookstore.http.catalog-version.refresh-interval:1s}") Duration refreshInterval) {
+        this.bookRepository = bookRepository;
+        this.refreshNanos = refreshInterval.toNanos();
+    }
+
+    /**
+     * Nouvelle génération après toute écriture validée sur un livre
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Jeton courant du catalogue (ETag et Last-Modified cohérents entre eux)
+     */
+    public Stamp stamp() {
+        Stamp current = stamp;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = stamp;
+            if (isFresh(current)) {
+                return current;
+            }
+            long readGeneration = generation.get();
+            if (current != null && !isExpired(current)) {
+                // Écriture locale depuis la lecture : jeton provisoire, sans relire la table
+                stamp = provisional(current, readGeneration);
+                return stamp;
+            }
+            // Primaire : une réplique en retard donnerait un jeton antérieur à une écriture déjà validée
+            CatalogFingerprint fingerprint = DataSourceRouting.onPrimary(bookRepository::fingerprintCatalog);
+            String etag = "\"" + fingerprint.getCount() + "-" + Long.toString(fingerprint.getIdSum(), 36)
+                    + "-" + Long.toString(fingerprint.getVersionSum(), 36) + "\"";
+            Instant lastModified = lastModified(current, etag, fingerprint.getLastModified());
+            stamp = new Stamp(etag, lastModified, readGeneration, System.nanoTime(), etag);
+            return stamp;
+        }
+    }
+
+    private boolean isFresh(Stamp current) {
+        return current != null && current.generation() == generation.get() && !isExpired(current);
+    }
+
+    private boolean isExpired(Stamp current) {
+        return System.nanoTime() - current.readAtNanos() >= refreshNanos;
+    }
+
+    /**
+     * Jeton d'une écriture locale pas encore relue en base ; expire avec la lecture dont il dérive
+     */
+    private Stamp provisional(Stamp current, long readGeneration) {
+        String base = current.databaseEtag();
+        String etag = base.substring(0, base.length() - 1) + "-" + instanceId + "." + Long.toString(readGeneration, 36) + "\"";
+        Instant now = Instant.now();
+        Instant lastModified = now.isAfter(current.lastModified()) ? now : current.lastModified();
+        return new Stamp(etag, lastModified, readGeneration, current.readAtNanos(), base);
+    }
+
+    /**
+     * Dernière modification en base ; une suppression ne la fait pas avancer : quand le jeton change,
+     * la date est au moins celle où l'instance a constaté le changement
+     */
+    private static Instant lastModified(Stamp previous, String etag, Instant databaseLastModified) {
+        Instant lastModified = databaseLastModified != null ? databaseLastModified : Instant.EPOCH;
+        if (previous == null) {
+            return lastModified;
+        }
+        if (previous.databaseEtag().equals(etag)) {
+            return previous.lastModified().isAfter(lastModified) ? previous.lastModified() : lastModified;
+        }
+        Instant now = Instant.now();
+        return now.isAfter(lastModified) ? now : lastModified;
+    }
+
+    /**
+     * ETag fort de l'état de la table (éventuellement provisoire) et date de dernière modification
+     * @param databaseEtag empreinte lue en base dont dérive le jeton
+     */
+    public record Stamp(String etag, Instant lastModified, long generation, long readAtNanos, String databaseEtag) {
+    }
+}
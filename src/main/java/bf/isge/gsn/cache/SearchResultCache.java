@@ -0,0 +1,198 @@
+package bf.isge.gsn.cache;
+
+import bf.isge.gsn.deadline.RequestDeadline;
+import bf.isge.gsn.exception.DeadlineExceededException;
+import bf.isge.gsn.search.TextNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache court des résultats de recherche, avec regroupement des recherches identiques simultanées
+ *
+ * - clé : opération + paramètres normalisés + pagination/tri + génération du catalogue (CatalogVersion) ;
+ *   toute écriture validée change la génération, les entrées antérieures ne sont plus jamais lues
+ *   et disparaissent à expiration (quelques secondes)
+ * - single-flight : tant qu'une recherche est en cours, les appels identiques attendent son résultat
+ *   au lieu d'interroger la base à leur tour ; une exception est propagée à tous les appelants
+ *   et rien n'est mis en cache ; l'attente s'arrête à l'échéance de la requête (RequestDeadline).
+ *   Un échec dû à l'échéance propre de l'appel qui charge (X-Request-Deadline court) n'est pas propagé :
+ *   les appels en attente recommencent, l'un d'eux charge avec sa propre échéance
+ * - chaque appelant reçoit sa propre copie (jamais les entités managées de l'appel qui a chargé)
+ *
+ * Un résultat n'est conservé que si la génération n'a pas changé pendant le chargement.
+ */
+@Component
+@Slf4j
+public class SearchResultCache implements MeterBinder {
+
+    private final Cache<SearchKey, Object> results;
+    private final ConcurrentMap<SearchKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final CatalogVersion catalogVersion;
+    private final LongAdder coalesced = new LongAdder();
+
+    /** Échec transmis aux appels en attente quand l'appel qui charge dépasse sa propre échéance */
+    private static final LeaderDeadlineExceeded LEADER_DEADLINE_EXCEEDED = new LeaderDeadlineExceeded();
+
+    public SearchResultCache(CatalogVersion catalogVersion,
+                             @Value("${bookstore.cache.search.maximum-size:1000}") long maximumSize,
+                             @Value("${bookstore.cache.search.expire-after-write:5s}") Duration expireAfterWrite) {
+        this.catalogVersion = catalogVersion;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        log.info("Cache des recherches: {} entrées max, expiration après {}", maximumSize, expireAfterWrite);
+    }
+
+    /**
+     * Renvoie le résultat en cache, celui d'un appel identique en cours, ou le charge via le loader
+     * @param operation nom de la recherche (ex. "titre", "auteur:page")
+     * @param params paramètres de la recherche (chaînes normalisées via {@link #normalize(String)}, Pageable...)
+     * @param loader exécution de la recherche
+     * @param copy copie profonde du résultat (aucune entité partagée entre appelants)
+     * @return une copie du résultat
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String operation, List<?> params, Supplier<T> loader, UnaryOperator<T> copy) {
+        while (true) {
+            SearchKey key = new SearchKey(operation, params, catalogVersion.generation());
+            Object cached = results.getIfPresent(key);
+            if (cached != null) {
+                return copy.apply((T) cached);
+            }
+
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+            if (running != null) {
+                coalesced.increment();
+                log.debug("Recherche regroupée avec un appel en cours: {}", key);
+                Object value;
+                try {
+                    value = await(running);
+                } catch (LeaderDeadlineExceeded e) {
+                    log.debug("Échéance de l'appel en cours dépassée, nouvelle tentative: {}", key);
+                    continue;
+                }
+                return copy.apply((T) value);
+            }
+
+            try {
+                T value = copy.apply(loader.get());
+                if (catalogVersion.generation() == key.generation()) {
+                    results.put(key, value);
+                }
+                call.complete(value);
+                return copy.apply(value);
+            } catch (RuntimeException | Error e) {
+                // Échéance de cet appel écoulée : l'échec ne dit rien du résultat pour les autres appelants
+                boolean ownDeadline = RequestDeadline.isSet() && RequestDeadline.remainingNanos() <= 0;
+                call.completeExceptionally(ownDeadline ? LEADER_DEADLINE_EXCEEDED : e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+    }
+
+    /**
+     * Forme canonique d'un terme de recherche : les recherches textuelles ignorent la casse et les accents
+     * (même normalisation que TrigramIndex et les colonnes normalisées, les espaces restent significatifs)
+     */
+    public static String normalize(String term) {
+        return term == null ? null : TextNormalizer.fold(term);
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        if (!RequestDeadline.isSet()) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause(), e);
+            }
+        }
+        try {
+            return running.get(Math.max(0, RequestDeadline.remainingNanos()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause(), new CompletionException(e.getCause()));
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Délai de la requête écoulé en attendant une recherche identique en cours");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Attente d'une recherche identique en cours interrompue");
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause, RuntimeException wrapper) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return wrapper;
+    }
+
+    public void clear() {
+        results.invalidateAll();
+    }
+
+    /**
+     * Compteurs cumulés (succès, échecs, évictions...)
+     */
+    public CacheStats stats() {
+        return results.stats();
+    }
+
+    public long size() {
+        return results.estimatedSize();
+    }
+
+    /**
+     * Recherches servies par un appel identique déjà en cours
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Compteurs du cache (cache.gets... avec cache=search) et bookstore.search.coalesced
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, results, "search");
+        FunctionCounter.builder("bookstore.search.coalesced", coalesced, LongAdder::doubleValue)
+                .description("Recherches servies par un appel identique déjà en cours")
+                .register(registry);
+    }
+
+    private record SearchKey(String operation, List<?> params, long generation) {
+    }
+
+    private static final class LeaderDeadlineExceeded extends RuntimeException {
+        LeaderDeadlineExceeded() {
+            super("Échéance de l'appel en cours dépassée", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package bf.isge.gsn.config;
+
+import bf.isge.gsn.entity.Book;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aligne la séquence books_seq sur les identifiants existants
+ *
+ * Les livres créés avant le passage de IDENTITY à SEQUENCE ont des id
+ * que la séquence (nouvellement créée) ne connaît pas : sans réalignement,
+ * les premiers INSERT entreraient en collision avec ces id.
+ * Exécuté avant le démarrage du serveur web, donc avant toute création de livre.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookIdSequenceInitializer {
+
+    private static final String SEQUENCE = "books_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequence() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM books", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        Long next = jdbcTemplate.queryForObject(
+                dialect.getSequenceSupport().getSequenceNextValString(SEQUENCE), Long.class);
+        if (next != null && next > maxId) {
+            return;
+        }
+
+        long restart = maxId + Book.ID_ALLOCATION_SIZE + 1;
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + restart);
+        log.info("Séquence {} réalignée sur les livres existants: redémarre à {}", SEQUENCE, restart);
+    }
+}
@@ -0,0 +1,70 @@
+package bf.isge.gsn.config;
+
+import bf.isge.gsn.search.TextNormalizer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Complète les colonnes normalisées (titre_recherche, auteur_recherche, titre_tri, auteur_tri)
+ * des livres enregistrés avant leur ajout
+ *
+ * Mêmes règles que BookNormalizationListener, appliquées en JDBC par tranches : ni la version
+ * ni la date de modification des livres ne changent (leur représentation est inchangée).
+ *
+ * Exécuté avant le démarrage du serveur web, y compris en mode startup : recherches en base,
+ * tris et pagination par curseur sur titre/auteur supposent ces colonnes renseignées
+ * (un livre non complété serait ignoré ou mal classé). Coût borné à un seul parcours
+ * de la table par la clé primaire, chaque tranche reprenant après le dernier id traité.
+ * Le complément ne remplace jamais une colonne déjà renseignée (COALESCE).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchKeysBackfill {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String SELECT_MISSING = "SELECT id, titre, auteur FROM books WHERE id > ? "
+            + "AND (titre_recherche IS NULL OR auteur_recherche IS NULL OR titre_tri IS NULL OR auteur_tri IS NULL) "
+            + "ORDER BY id LIMIT " + CHUNK_SIZE;
+
+    private static final String UPDATE_KEYS = "UPDATE books SET titre_recherche = COALESCE(titre_recherche, ?), "
+            + "auteur_recherche = COALESCE(auteur_recherche, ?), titre_tri = COALESCE(titre_tri, ?), "
+            + "auteur_tri = COALESCE(auteur_tri, ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Dépendance d'ordre : le schéma (ddl-auto) est à jour avant le complément
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void backfill() {
+        long total = 0;
+        long lastId = 0;
+        List<Object[]> chunk;
+        do {
+            chunk = jdbcTemplate.query(SELECT_MISSING, (rs, rowNum) -> {
+                String titre = rs.getString("titre");
+                String auteur = rs.getString("auteur");
+                return new Object[]{
+                        TextNormalizer.fold(titre), TextNormalizer.fold(auteur),
+                        TextNormalizer.sortKey(titre), TextNormalizer.sortKey(auteur),
+                        rs.getLong("id")};
+            }, lastId);
+            if (!chunk.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_KEYS, chunk);
+                total += chunk.size();
+                lastId = (Long) chunk.get(chunk.size() - 1)[4];
+            }
+        } while (chunk.size() == CHUNK_SIZE);
+
+        if (total > 0) {
+            log.info("Colonnes normalisées complétées pour {} livre(s)", total);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package bf.isge.gsn.config;
+
+import bf.isge.gsn.cache.AuthenticationCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * AuthenticationProvider qui mémorise les authentifications réussies
+ *
+ * Délègue au provider standard (chargement de l'utilisateur + BCrypt) uniquement
+ * si les mêmes identifiants n'ont pas été validés récemment.
+ * Les échecs ne sont jamais mis en cache.
+ */
+@RequiredArgsConstructor
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache authenticationCache;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String password = credentials.toString();
+        Authentication cached = authenticationCache.get(username, password);
+        if (cached != null) {
+            return cached;
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            authenticationCache.put(username, password, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 /**
  * Initialise un compte administrateur par défaut au démarrage
  * si aucun admin n'existe dans la base
+ * (hors du chemin critique en mode startup : le hachage BCrypt coûte plusieurs dizaines de ms)
  */
 @Component
 @RequiredArgsConstructor
@@ -19,9 +20,14 @@ public class DataInitializer implements CommandLineRunner {
 
     private final AppUserRepository appUserRepository;
     private final PasswordEncoder passwordEncoder;
+    private final DeferredInitialization deferredInitialization;
 
     @Override
     public void run(String... args) {
+        deferredInitialization.run("admin-account", this::createAdminIfMissing);
+    }
+
+    private void createAdminIfMissing() {
         if (!appUserRepository.existsByUsername("admin")) {
             AppUser admin = new AppUser();
             admin.setUsername("admin");
@@ -0,0 +1,45 @@
+package bf.isge.gsn.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Initialisations non critiques du démarrage (index en mémoire, index plein texte, compte admin)
+ *
+ * Avec bookstore.startup.deferred-initialization=true (profil startup), chaque tâche s'exécute
+ * dans son propre thread : l'application répond dès que le serveur web est prêt, les recherches
+ * passent par la base (ou répondent 503) jusqu'à la fin des reconstructions.
+ * Par défaut, les tâches s'exécutent dans le thread de démarrage, comme avant.
+ */
+@Component
+@Slf4j
+public class DeferredInitialization {
+
+    private final boolean enabled;
+
+    public DeferredInitialization(@Value("${bookstore.startup.deferred-initialization:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param name nom de la tâche (journaux, nom du thread)
+     */
+    public void run(String name, Runnable task) {
+        if (!enabled) {
+            task.run();
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                task.run();
+                log.info("Initialisation différée {} terminée en {} ms", name, System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                log.error("Échec de l'initialisation différée {}", name, e);
+            }
+        }, "startup-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
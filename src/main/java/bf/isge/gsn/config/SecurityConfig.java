@@ -1,10 +1,14 @@
 package bf.isge.gsn.config;
 
+import bf.isge.gsn.cache.AuthenticationCache;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -19,6 +23,9 @@ import org.springframework.security.web.SecurityFilterChain;
  * Rôles :
  * - USER (client) : consultation des livres uniquement
  * - ADMIN : gestion complète (ajout, modification, suppression)
+ *
+ * Les authentifications réussies sont mises en cache (AuthenticationCache) :
+ * les appels API répétés en HTTP Basic évitent la requête utilisateur et le coût BCrypt.
  */
 @Configuration
 @EnableWebSecurity
@@ -30,7 +37,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 // Pages publiques (pas d'authentification)
                 .requestMatchers("/login", "/register").permitAll()
-                .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**", "/openapi.json").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
 
                 // Pages web Thymeleaf - accessibles à tous les utilisateurs authentifiés
@@ -41,11 +48,16 @@ public class SecurityConfig {
 
                 // API REST
                 .requestMatchers(HttpMethod.GET, "/api/books/**").hasAnyRole("USER", "ADMIN")
-                .requestMatchers(HttpMethod.POST, "/api/books").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/books/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/books/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PATCH, "/api/books/**").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/books/**").hasRole("ADMIN")
 
+                // Supervision (caches, index, métriques...) - réservé aux ADMIN, sauf health
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
+
                 .anyRequest().authenticated()
             )
             .httpBasic(httpBasic -> {})
@@ -66,6 +78,18 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Provider d'authentification : utilisateurs en base + BCrypt, derrière un cache court
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         AuthenticationCache authenticationCache) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        return new CachingAuthenticationProvider(daoProvider, authenticationCache);
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
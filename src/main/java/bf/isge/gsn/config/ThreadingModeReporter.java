@@ -0,0 +1,36 @@
+package bf.isge.gsn.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Indique au démarrage le mode d'exécution des requêtes (threads de plateforme ou virtuels)
+ *
+ * spring.threads.virtual.enabled est ignoré silencieusement par Spring Boot avant Java 21 :
+ * le profil virtual-threads lancé sur un JDK trop ancien est signalé ici.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ThreadingModeReporter {
+
+    private final Environment environment;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("Requêtes HTTP et tâches asynchrones exécutées sur threads virtuels (Java {})", Runtime.version().feature());
+        } else if (requested) {
+            log.warn("Threads virtuels demandés mais indisponibles sur Java {} (Java 21 requis) : threads de plateforme utilisés",
+                     Runtime.version().feature());
+        } else {
+            log.info("Requêtes HTTP exécutées sur le pool de threads de plateforme de Tomcat");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package bf.isge.gsn.controller;
+
+import bf.isge.gsn.cache.AuthenticationCache;
+import bf.isge.gsn.cache.BookCache;
+import bf.isge.gsn.cache.SearchResultCache;
+import bf.isge.gsn.dto.CacheStatsResponse;
+import bf.isge.gsn.dto.ConcurrencyLimitStatus;
+import bf.isge.gsn.resilience.ConcurrencyLimitInterceptor;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Contrôleur REST d'administration (ADMIN uniquement)
+ * Expose l'état des structures en mémoire pour le dimensionnement
+ *
+ * Endpoints disponibles :
+ * - GET /api/admin/cache/books - Statistiques du cache des livres
+ * - GET /api/admin/cache/authentication - Statistiques du cache d'authentification
+ * - GET /api/admin/cache/search - Statistiques du cache des recherches
+ * - GET /api/admin/concurrency - Limites de concurrence adaptatives par classe d'endpoints
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Administration", description = "Supervision des caches, index en mémoire et limites de concurrence")
+public class AdminController {
+
+    private final BookCache bookCache;
+    private final AuthenticationCache authenticationCache;
+    private final SearchResultCache searchResultCache;
+    private final ObjectProvider<ConcurrencyLimitInterceptor> concurrencyLimits;
+
+    /**
+     * Statistiques du cache des livres par identifiant
+     * @return compteurs de succès, échecs et évictions
+     */
+    @GetMapping("/cache/books")
+    @Operation(summary = "Statistiques du cache des livres", description = "Compteurs hit/miss/éviction du cache de getBookById")
+    @ApiResponse(responseCode = "200", description = "Statistiques retournées")
+    public ResponseEntity<CacheStatsResponse> getBookCacheStats() {
+        log.info("GET /api/admin/cache/books - Statistiques du cache des livres");
+        return ResponseEntity.ok(CacheStatsResponse.of("books", bookCache.size(), bookCache.stats()));
+    }
+
+    /**
+     * Statistiques du cache d'authentification (HTTP Basic / formulaire)
+     * @return compteurs de succès, échecs et évictions
+     */
+    @GetMapping("/cache/authentication")
+    @Operation(summary = "Statistiques du cache d'authentification", description = "Compteurs hit/miss/éviction des authentifications mises en cache")
+    @ApiResponse(responseCode = "200", description = "Statistiques retournées")
+    public ResponseEntity<CacheStatsResponse> getAuthenticationCacheStats() {
+        log.info("GET /api/admin/cache/authentication - Statistiques du cache d'authentification");
+        return ResponseEntity.ok(CacheStatsResponse.of("authentication", authenticationCache.size(), authenticationCache.stats()));
+    }
+
+    /**
+     * Statistiques du cache des résultats de recherche
+     * Les recherches regroupées avec un appel en cours sont exposées par la métrique bookstore.search.coalesced
+     * @return compteurs de succès, échecs et évictions
+     */
+    @GetMapping("/cache/search")
+    @Operation(summary = "Statistiques du cache des recherches", description = "Compteurs hit/miss/éviction du cache court des résultats de recherche")
+    @ApiResponse(responseCode = "200", description = "Statistiques retournées")
+    public ResponseEntity<CacheStatsResponse> getSearchCacheStats() {
+        log.info("GET /api/admin/cache/search - Statistiques du cache des recherches");
+        return ResponseEntity.ok(CacheStatsResponse.of("search", searchResultCache.size(), searchResultCache.stats()));
+    }
+
+    /**
+     * État des limites de concurrence (recherche, lecture unitaire, écriture)
+     * @return limite actuelle, requêtes en cours et refusées par classe (liste vide si le délestage est désactivé)
+     */
+    @GetMapping("/concurrency")
+    @Operation(summary = "Limites de concurrence", description = "Limite adaptative actuelle, requêtes en cours et refusées par classe d'endpoints")
+    @ApiResponse(responseCode = "200", description = "État retourné")
+    public ResponseEntity<List<ConcurrencyLimitStatus>> getConcurrencyLimits() {
+        log.info("GET /api/admin/concurrency - Limites de concurrence");
+        ConcurrencyLimitInterceptor interceptor = concurrencyLimits.getIfAvailable();
+        List<ConcurrencyLimitStatus> limits = interceptor == null ? List.of()
+                : interceptor.limiters().stream().map(ConcurrencyLimitStatus::of).toList();
+        return ResponseEntity.ok(limits);
+    }
+}
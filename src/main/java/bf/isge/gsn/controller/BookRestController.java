@@ -1,23 +1,63 @@
 package bf.isge.gsn.controller;
 
+import bf.isge.gsn.cache.CatalogVersion;
 import bf.isge.gsn.config.ApiCommonResponses;
+import bf.isge.gsn.dto.BookBatchResult;
+import bf.isge.gsn.dto.BookBulkDeleteRequest;
+import bf.isge.gsn.dto.BookBulkResult;
+import bf.isge.gsn.dto.BookRepriceRequest;
+import bf.isge.gsn.dto.BookSuggestion;
+import bf.isge.gsn.dto.CatalogStats;
+import bf.isge.gsn.dto.BookCursor;
+import bf.isge.gsn.dto.CursorPage;
+import bf.isge.gsn.dto.ErrorResponse;
+import bf.isge.gsn.dto.FullTextMatch;
+import bf.isge.gsn.dto.FuzzySearchResult;
 import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.exception.VersionConflictException;
+import bf.isge.gsn.service.BookBatchService;
 import bf.isge.gsn.service.BookService;
+import bf.isge.gsn.writebehind.BookWriteBehind;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contrôleur REST pour la gestion des livres
@@ -27,11 +67,29 @@ import java.util.List;
  * - GET /api/books - Récupérer tous les livres avec pagination
  * - GET /api/books/{id} - Récupérer un livre par ID
  * - POST /api/books - Créer un nouveau livre
+ * - POST /api/books/batch - Créer ou mettre à jour des livres en lot (JSON ou NDJSON)
+ * - POST /api/books/bulk/reprice - Réviser les prix de tous les livres d'un auteur
+ * - POST /api/books/bulk/delete - Supprimer un ensemble de livres
  * - PUT /api/books/{id} - Modifier complètement un livre
  * - PATCH /api/books/{id} - Modifier partiellement un livre
  * - DELETE /api/books/{id} - Supprimer un livre
+ * - GET /api/books/search - Recherche multicritère (titre, auteur, plage de prix)
  * - GET /api/books/search/titre - Rechercher par titre
  * - GET /api/books/search/auteur - Rechercher par auteur
+ * - GET /api/books/search/fuzzy - Recherche approchée (fautes de frappe tolérées)
+ * - GET /api/books/search/fulltext - Recherche plein texte classée par pertinence
+ * - GET /api/books/suggest - Suggestions de saisie (titres et auteurs commençant par un préfixe)
+ * - GET /api/books/stats - Statistiques du catalogue (nombre, prix, livres par auteur)
+ *
+ * GET /api/books/all est diffusé en flux (NDJSON ou CSV) selon l'en-tête Accept
+ *
+ * Les listes et recherches acceptent aussi une pagination par curseur :
+ * ?after=<curseur>&size=n (after vide pour la première tranche)
+ *
+ * Requêtes conditionnelles (If-None-Match / If-Modified-Since → 304) :
+ * - un livre : ETag fort "id-version" et date de dernière modification
+ * - PUT, PATCH et DELETE acceptent If-Match: "id-version" (412 si le livre a changé)
+ * - listes, recherches et comptage : version du catalogue (CatalogVersion), vérifiée avant la requête
  */
 
 @RestController
@@ -41,7 +99,15 @@ import java.util.List;
 @Tag(name = "Books", description = "API pour la gestion des livres")
 public class BookRestController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final BookService bookService;
+    private final BookBatchService bookBatchService;
+    private final BookWriteBehind bookWriteBehind;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersion catalogVersion;
 
     /**
      * Récupère tous les livres avec pagination
@@ -53,12 +119,43 @@ public class BookRestController {
     @ApiResponse(responseCode = "200", description = "Liste des livres récupérée avec succès")
     public ResponseEntity<Page<Book>> getAllBooks(
             @Parameter(description = "Paramètres de pagination (page, size, sort)")
-            Pageable pageable) {
+            Pageable pageable,
+            ServletWebRequest request) {
         log.info("GET /api/books - Récupération de tous les livres");
+        if (catalogNotModified(request)) {
+            return null;
+        }
         Page<Book> books = bookService.getAllBooks(pageable);
         return ResponseEntity.ok(books);
     }
 
+    /**
+     * Récupère les livres par pagination par curseur (pagination par clé)
+     * Le coût d'une tranche ne dépend pas de sa profondeur et aucun count(*) n'est exécuté
+     * @param after curseur opaque renvoyé par la tranche précédente (vide pour la première)
+     * @param size taille de la tranche
+     * @param sort clé de tri ascendante pour la première tranche (id, titre ou prix)
+     * @return tranche de livres et curseur suivant
+     */
+    @GetMapping(params = "after")
+    @Operation(summary = "Récupérer les livres (curseur)", description = "Pagination par clé : ?after=<curseur>&size=n, sans nombre total")
+    @ApiResponse(responseCode = "200", description = "Tranche de livres récupérée avec succès")
+    @ApiCommonResponses
+    public ResponseEntity<CursorPage<Book>> getBooksAfter(
+            @Parameter(description = "Curseur opaque renvoyé par la tranche précédente (vide pour commencer)")
+            @RequestParam String after,
+            @Parameter(description = "Taille de la tranche", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Clé de tri de la première tranche : id, titre ou prix", example = "titre")
+            @RequestParam(defaultValue = "id") String sort,
+            ServletWebRequest request) {
+        log.info("GET /api/books?after - Récupération par curseur: size={}, sort={}", size, sort);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.getAllBooks(BookCursor.parse(after, sort), size));
+    }
+
     /**
      * Récupère tous les livres sans pagination
      * @return Liste de tous les livres
@@ -66,12 +163,65 @@ public class BookRestController {
     @GetMapping("/all")
     @Operation(summary = "Récupérer tous les livres (sans pagination)", description = "Récupère la liste complète de tous les livres")
     @ApiResponse(responseCode = "200", description = "Liste des livres récupérée avec succès")
-    public ResponseEntity<List<Book>> getAllBooksWithoutPagination() {
+    public ResponseEntity<List<Book>> getAllBooksWithoutPagination(ServletWebRequest request) {
         log.info("GET /api/books/all - Récupération de tous les livres sans pagination");
+        if (catalogNotModified(request)) {
+            return null;
+        }
         List<Book> books = bookService.getAllBooks();
         return ResponseEntity.ok(books);
     }
 
+    /**
+     * Diffuse tous les livres en NDJSON (un objet JSON par ligne)
+     * Les lignes sont écrites au fil de la lecture : mémoire constante quel que soit le volume
+     * @return flux NDJSON
+     */
+    @GetMapping(value = "/all", produces = NDJSON)
+    @Operation(summary = "Exporter tous les livres (NDJSON)", description = "Diffusion en flux, un livre JSON par ligne (Accept: application/x-ndjson)")
+    @ApiResponse(responseCode = "200", description = "Flux des livres")
+    public ResponseEntity<StreamingResponseBody> streamAllBooksNdjson() {
+        log.info("GET /api/books/all - Diffusion NDJSON de tous les livres");
+        ObjectWriter writer = objectMapper.writerFor(Book.class);
+        StreamingResponseBody body = out -> bookService.streamAllBooks(book -> {
+            try {
+                out.write(writer.writeValueAsBytes(book));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Diffuse tous les livres en CSV (id,titre,auteur,prix)
+     * @return flux CSV avec ligne d'en-tête
+     */
+    @GetMapping(value = "/all", produces = CSV)
+    @Operation(summary = "Exporter tous les livres (CSV)", description = "Diffusion en flux au format CSV (Accept: text/csv)")
+    @ApiResponse(responseCode = "200", description = "Flux des livres")
+    public ResponseEntity<StreamingResponseBody> streamAllBooksCsv() {
+        log.info("GET /api/books/all - Diffusion CSV de tous les livres");
+        StreamingResponseBody body = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write("id,titre,auteur,prix\n");
+            bookService.streamAllBooks(book -> {
+                try {
+                    writer.write(book.getId() + "," + csv(book.getTitre()) + "," + csv(book.getAuteur())
+                            + "," + book.getPrix().toPlainString() + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header("Content-Disposition", "attachment; filename=\"books.csv\"")
+                .body(body);
+    }
+
     /**
      * Récupère un livre par son identifiant
      * @param id l'identifiant du livre
@@ -82,9 +232,13 @@ public class BookRestController {
     @ApiCommonResponses
     public ResponseEntity<Book> getBookById(
             @Parameter(description = "Identifiant unique du livre", example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            ServletWebRequest request) {
         log.info("GET /api/books/{} - Récupération du livre", id);
         Book book = bookService.getBookById(id);
+        if (bookNotModified(request, book)) {
+            return null;
+        }
         return ResponseEntity.ok(book);
     }
 
@@ -99,10 +253,98 @@ public class BookRestController {
     public ResponseEntity<Book> createBook(
             @Valid @RequestBody Book book) {
         log.info("POST /api/books - Création d'un nouveau livre: {}", book);
-        Book createdBook = bookService.saveBook(book);
+        Book createdBook = bookWriteBehind.saveBook(book);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdBook);
     }
 
+    /**
+     * Crée ou met à jour des livres en lot à partir d'un tableau JSON
+     * Chaque élément est validé et traité indépendamment (upsert sur le titre)
+     * @param items les livres à importer
+     * @return le résultat par élément
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Importer des livres en lot (JSON)",
+               description = "Crée ou met à jour (sur le titre) une liste de livres, écrite par tranches avec batch JDBC. "
+                       + "Un élément invalide est rejeté sans annuler le reste du lot.")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+            array = @ArraySchema(schema = @Schema(implementation = Book.class))))
+    @ApiCommonResponses
+    public ResponseEntity<BookBatchResult> createBooksBatch(@RequestBody List<JsonNode> items) {
+        log.info("POST /api/books/batch - Import en lot JSON de {} élément(s)", items.size());
+        List<Book> books = new ArrayList<>(items.size());
+        Map<Integer, String> parseErrors = new HashMap<>();
+        for (JsonNode item : items) {
+            try {
+                books.add(objectMapper.treeToValue(item, Book.class));
+            } catch (JsonProcessingException e) {
+                parseErrors.put(books.size(), "Élément illisible: " + e.getOriginalMessage());
+                books.add(null);
+            }
+        }
+        return ResponseEntity.ok(bookBatchService.upsertBooks(books, parseErrors));
+    }
+
+    /**
+     * Crée ou met à jour des livres en lot à partir d'un flux NDJSON (un livre JSON par ligne)
+     * Une ligne illisible est rejetée sans bloquer les suivantes
+     * @param body le flux NDJSON
+     * @return le résultat par élément (index = numéro de ligne non vide, à partir de 0)
+     */
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    @Operation(summary = "Importer des livres en lot (NDJSON)",
+               description = "Même traitement que le lot JSON, un livre par ligne (Content-Type: application/x-ndjson)")
+    @ApiCommonResponses
+    public ResponseEntity<BookBatchResult> createBooksBatchNdjson(InputStream body) throws IOException {
+        List<Book> books = new ArrayList<>();
+        Map<Integer, String> parseErrors = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                books.add(objectMapper.readValue(line, Book.class));
+            } catch (JsonProcessingException e) {
+                parseErrors.put(books.size(), "Ligne illisible: " + e.getOriginalMessage());
+                books.add(null);
+            }
+        }
+        log.info("POST /api/books/batch - Import en lot NDJSON de {} élément(s)", books.size());
+        return ResponseEntity.ok(bookBatchService.upsertBooks(books, parseErrors));
+    }
+
+    /**
+     * Applique un coefficient au prix de tous les livres d'un auteur
+     * @param request l'auteur et le coefficient
+     * @return le nombre de livres modifiés et la durée
+     */
+    @PostMapping("/bulk/reprice")
+    @Operation(summary = "Réviser les prix d'un auteur",
+               description = "Multiplie le prix de tous les livres de l'auteur (nom exact) par le coefficient, arrondi à 2 décimales. "
+                       + "Exécuté par tranches en UPDATE ensemblistes ; refusé si un prix sortait des bornes autorisées.")
+    @ApiCommonResponses
+    public ResponseEntity<BookBulkResult> repriceBooks(@Valid @RequestBody BookRepriceRequest request) {
+        log.info("POST /api/books/bulk/reprice - Auteur: '{}', coefficient: {}", request.getAuteur(), request.getMultiplier());
+        return ResponseEntity.ok(bookBatchService.repriceByAuteur(request.getAuteur(), request.getMultiplier()));
+    }
+
+    /**
+     * Supprime un ensemble de livres
+     * @param request les identifiants des livres
+     * @return le nombre de livres supprimés et la durée
+     */
+    @PostMapping("/bulk/delete")
+    @Operation(summary = "Supprimer des livres en masse",
+               description = "Supprime les livres dont l'identifiant figure dans la liste, par tranches en DELETE ensemblistes. "
+                       + "Les identifiants inconnus sont ignorés.")
+    @ApiCommonResponses
+    public ResponseEntity<BookBulkResult> deleteBooks(@Valid @RequestBody BookBulkDeleteRequest request) {
+        log.info("POST /api/books/bulk/delete - Suppression de {} identifiant(s)", request.getIds().size());
+        return ResponseEntity.ok(bookBatchService.deleteByIds(request.getIds()));
+    }
+
     /**
      * Met à jour complètement un livre (PUT)
      * @param id l'identifiant du livre à modifier
@@ -111,14 +353,18 @@ public class BookRestController {
      */
     @PutMapping("/{id}")
     @Operation(summary = "Mettre à jour complètement un livre", description = "Remplace entièrement les données d'un livre")
+    @ApiResponse(responseCode = "412", description = "Le livre a changé depuis l'ETag fourni dans If-Match",
+                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     @ApiCommonResponses
     public ResponseEntity<Book> updateBook(
             @Parameter(description = "Identifiant unique du livre", example = "1")
             @PathVariable Long id,
-            @Valid @RequestBody Book bookDetails) {
+            @Valid @RequestBody Book bookDetails,
+            @Parameter(description = "ETag du livre (\"id-version\") : la modification n'est appliquée que si le livre n'a pas changé")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("PUT /api/books/{} - Mise à jour du livre", id);
-        Book updatedBook = bookService.updateBook(id, bookDetails);
-        return ResponseEntity.ok(updatedBook);
+        Book updatedBook = bookService.updateBook(id, bookDetails, expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(etag(updatedBook)).body(updatedBook);
     }
 
     /**
@@ -129,14 +375,18 @@ public class BookRestController {
      */
     @PatchMapping("/{id}")
     @Operation(summary = "Mettre à jour partiellement un livre", description = "Met à jour certains champs d'un livre")
+    @ApiResponse(responseCode = "412", description = "Le livre a changé depuis l'ETag fourni dans If-Match",
+                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     @ApiCommonResponses
     public ResponseEntity<Book> partialUpdateBook(
             @Parameter(description = "Identifiant unique du livre", example = "1")
             @PathVariable Long id,
-            @RequestBody Book bookDetails) {
+            @RequestBody Book bookDetails,
+            @Parameter(description = "ETag du livre (\"id-version\") : la modification n'est appliquée que si le livre n'a pas changé")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("PATCH /api/books/{} - Mise à jour partielle du livre", id);
-        Book updatedBook = bookService.partialUpdateBook(id, bookDetails);
-        return ResponseEntity.ok(updatedBook);
+        Book updatedBook = bookService.partialUpdateBook(id, bookDetails, expectedVersion(id, ifMatch));
+        return ResponseEntity.ok().eTag(etag(updatedBook)).body(updatedBook);
     }
 
     /**
@@ -147,15 +397,143 @@ public class BookRestController {
     @DeleteMapping("/{id}")
     @Operation(summary = "Supprimer un livre", description = "Supprime un livre de la base de données")
     @ApiResponse(responseCode = "204", description = "Livre supprimé avec succès")
+    @ApiResponse(responseCode = "412", description = "Le livre a changé depuis l'ETag fourni dans If-Match",
+                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     @ApiCommonResponses
     public ResponseEntity<Void> deleteBook(
             @Parameter(description = "Identifiant unique du livre", example = "1")
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            @Parameter(description = "ETag du livre (\"id-version\") : la suppression n'est appliquée que si le livre n'a pas changé")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.info("DELETE /api/books/{} - Suppression du livre", id);
-        bookService.deleteBook(id);
+        bookService.deleteBook(id, expectedVersion(id, ifMatch));
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Recherche multicritère : toute combinaison de titre, auteur, prix minimum et maximum
+     * Une seule requête quelle que soit la combinaison (les critères absents sont ignorés)
+     * @param titre partie du titre (optionnel)
+     * @param auteur partie de l'auteur (optionnel)
+     * @param minPrix prix minimum inclus (optionnel)
+     * @param maxPrix prix maximum inclus (optionnel)
+     * @param pageable paramètres de pagination et de tri (par défaut : 20 par page, tri par id)
+     * @return page de livres correspondant à tous les critères fournis
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Recherche multicritère",
+               description = "Combine librement titre, auteur (contient, insensible à la casse) et plage de prix, "
+                       + "avec pagination et tri, en une seule requête")
+    @ApiResponse(responseCode = "200", description = "Résultats de la recherche")
+    @ApiCommonResponses
+    public ResponseEntity<Page<Book>> searchBooks(
+            @Parameter(description = "Titre ou partie du titre", example = "Parachutage")
+            @RequestParam(required = false) String titre,
+            @Parameter(description = "Auteur ou partie de l'auteur", example = "Zongo")
+            @RequestParam(required = false) String auteur,
+            @Parameter(description = "Prix minimum inclus (CFA)", example = "5000")
+            @RequestParam(required = false) BigDecimal minPrix,
+            @Parameter(description = "Prix maximum inclus (CFA)", example = "15000")
+            @RequestParam(required = false) BigDecimal maxPrix,
+            @Parameter(description = "Paramètres de pagination (page, size, sort)")
+            @PageableDefault(size = 20, sort = "id") Pageable pageable,
+            ServletWebRequest request) {
+        log.info("GET /api/books/search - Recherche multicritère: titre={}, auteur={}, prix=[{}, {}]",
+                 titre, auteur, minPrix, maxPrix);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.searchBooks(titre, auteur, minPrix, maxPrix, pageable));
+    }
+
+    /**
+     * Recherche approchée sur les mots des titres et auteurs, tolérante aux fautes de frappe
+     * @param q mots recherchés (casse et accents ignorés)
+     * @param limit nombre maximal de résultats
+     * @return livres classés du plus proche au plus éloigné
+     */
+    @GetMapping("/search/fuzzy")
+    @Operation(summary = "Recherche approchée",
+               description = "Trouve les livres dont le titre ou l'auteur contient des mots proches de ceux saisis "
+                       + "(1 faute jusqu'à 5 lettres, 2 au-delà), classés par nombre de fautes. Résolue en mémoire, "
+                       + "en temps borné")
+    @ApiResponse(responseCode = "200", description = "Résultats de la recherche")
+    @ApiResponse(responseCode = "503", description = "Index de recherche approchée en cours de construction",
+                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    @ApiCommonResponses
+    public ResponseEntity<FuzzySearchResult> fuzzySearch(
+            @Parameter(description = "Mots recherchés (8 au maximum)", example = "Norbert Zongho")
+            @RequestParam String q,
+            @Parameter(description = "Nombre maximal de résultats (1 à 100)", example = "20")
+            @RequestParam(defaultValue = "20") int limit,
+            ServletWebRequest request) {
+        log.info("GET /api/books/search/fuzzy - Recherche approchée: {}", q);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.fuzzySearch(q, limit));
+    }
+
+    /**
+     * Recherche plein texte sur les mots des titres et auteurs, classée par pertinence
+     * @param q mots recherchés (casse et accents ignorés)
+     * @param pageable page et taille
+     * @return page de livres du plus pertinent au moins pertinent
+     */
+    @GetMapping("/search/fulltext")
+    @Operation(summary = "Recherche plein texte",
+               description = "Trouve les livres dont le titre ou l'auteur contient au moins un des mots saisis, "
+                       + "classés par pertinence (BM25, le titre compte double). Résolue par un index sur disque ; "
+                       + "le tri demandé est ignoré, 10 000 premiers résultats au plus")
+    @ApiResponse(responseCode = "200", description = "Résultats de la recherche")
+    @ApiResponse(responseCode = "503", description = "Index plein texte en cours d'ouverture",
+                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    @ApiCommonResponses
+    public ResponseEntity<Page<FullTextMatch>> fullTextSearch(
+            @Parameter(description = "Mots recherchés (16 au maximum)", example = "parachutage zongo")
+            @RequestParam String q,
+            @Parameter(description = "Paramètres de pagination (page, size de 1 à 100)")
+            @PageableDefault(size = 20) Pageable pageable,
+            ServletWebRequest request) {
+        log.info("GET /api/books/search/fulltext - Recherche plein texte: {}", q);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.fullTextSearch(q, pageable));
+    }
+
+    /**
+     * Suggestions de saisie sur les titres et auteurs
+     * @param prefix début de saisie (casse et accents ignorés)
+     * @param type titre, auteur ou absent pour les deux
+     * @param limit nombre maximal de suggestions
+     * @return titres et auteurs dont un mot commence par le préfixe, les plus fréquents d'abord
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggestions de saisie",
+               description = "Titres et auteurs du catalogue dont un mot commence par le préfixe, classés par "
+                       + "nombre de livres. Résolues en mémoire, sans accès à la base")
+    @ApiResponse(responseCode = "200", description = "Suggestions",
+                 content = @Content(mediaType = "application/json",
+                         array = @ArraySchema(schema = @Schema(implementation = BookSuggestion.class))))
+    @ApiResponse(responseCode = "503", description = "Index des suggestions en cours de construction",
+                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    @ApiCommonResponses
+    public ResponseEntity<List<BookSuggestion>> suggest(
+            @Parameter(description = "Début de saisie", example = "zon")
+            @RequestParam String prefix,
+            @Parameter(description = "Champ suggéré (titre ou auteur) ; les deux si absent", example = "auteur")
+            @RequestParam(required = false) String type,
+            @Parameter(description = "Nombre maximal de suggestions (1 à 10)", example = "8")
+            @RequestParam(defaultValue = "8") int limit,
+            ServletWebRequest request) {
+        log.debug("GET /api/books/suggest - Suggestions: {}", prefix);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.suggest(prefix, type, limit));
+    }
+
     /**
      * Recherche les livres par titre
      * @param titre le titre ou partie du titre à rechercher
@@ -170,8 +548,12 @@ public class BookRestController {
             @Parameter(description = "Titre ou partie du titre", example = "Hugo")
             @RequestParam String titre,
             @Parameter(description = "Paramètres de pagination optionnels (page, size, sort)")
-            Pageable pageable) {
+            Pageable pageable,
+            ServletWebRequest request) {
         log.info("GET /api/books/search/titre - Recherche par titre: {}", titre);
+        if (catalogNotModified(request)) {
+            return null;
+        }
         // Si pageable contient des paramètres, utiliser la version paginée
         if (pageable.isPaged()) {
             Page<Book> books = bookService.searchByTitre(titre, pageable);
@@ -182,6 +564,30 @@ public class BookRestController {
         }
     }
 
+    /**
+     * Rechercher par titre (pagination par curseur)
+     * Activée par la présence du paramètre 'after' (vide pour la première tranche)
+     * @return tranche de livres et curseur suivant, sans nombre total
+     */
+    @GetMapping(value = "/search/titre", params = "after")
+    @Operation(summary = "Rechercher par titre (curseur)", description = "Recherche par titre avec pagination par clé sur l'id")
+    @ApiResponse(responseCode = "200", description = "Tranche de résultats")
+    @ApiCommonResponses
+    public ResponseEntity<CursorPage<Book>> searchByTitreAfter(
+            @Parameter(description = "Titre ou partie du titre", example = "Hugo")
+            @RequestParam String titre,
+            @Parameter(description = "Curseur opaque renvoyé par la tranche précédente (vide pour commencer)")
+            @RequestParam String after,
+            @Parameter(description = "Taille de la tranche", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest request) {
+        log.info("GET /api/books/search/titre - Recherche par curseur: titre={}", titre);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.searchByTitre(titre, BookCursor.parse(after, null), size));
+    }
+
     /**
      * Recherche les livres par auteur
      * @param auteur l'auteur ou partie de l'auteur à rechercher
@@ -196,8 +602,12 @@ public class BookRestController {
             @Parameter(description = "Auteur ou partie de l'auteur", example = "Hugo")
             @RequestParam String auteur,
             @Parameter(description = "Paramètres de pagination optionnels (page, size, sort)")
-            Pageable pageable) {
+            Pageable pageable,
+            ServletWebRequest request) {
         log.info("GET /api/books/search/auteur - Recherche par auteur: {}", auteur);
+        if (catalogNotModified(request)) {
+            return null;
+        }
         if (pageable.isPaged()) {
             Page<Book> books = bookService.searchByAuteur(auteur, pageable);
             return ResponseEntity.ok(books);
@@ -207,6 +617,30 @@ public class BookRestController {
         }
     }
 
+    /**
+     * Rechercher par auteur (pagination par curseur)
+     * Activée par la présence du paramètre 'after' (vide pour la première tranche)
+     * @return tranche de livres et curseur suivant, sans nombre total
+     */
+    @GetMapping(value = "/search/auteur", params = "after")
+    @Operation(summary = "Rechercher par auteur (curseur)", description = "Recherche par auteur avec pagination par clé sur l'id")
+    @ApiResponse(responseCode = "200", description = "Tranche de résultats")
+    @ApiCommonResponses
+    public ResponseEntity<CursorPage<Book>> searchByAuteurAfter(
+            @Parameter(description = "Auteur ou partie de l'auteur", example = "Hugo")
+            @RequestParam String auteur,
+            @Parameter(description = "Curseur opaque renvoyé par la tranche précédente (vide pour commencer)")
+            @RequestParam String after,
+            @Parameter(description = "Taille de la tranche", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest request) {
+        log.info("GET /api/books/search/auteur - Recherche par curseur: auteur={}", auteur);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.searchByAuteur(auteur, BookCursor.parse(after, null), size));
+    }
+
     /**
      * Recherche avancée combinée : titre ET auteur
      * @param titre partie du titre à rechercher
@@ -224,12 +658,42 @@ public class BookRestController {
             @Parameter(description = "Auteur ou partie de l'auteur", example = "Zongo")
             @RequestParam String auteur,
             @Parameter(description = "Paramètres de pagination (page, size, sort)")
-            Pageable pageable) {
+            Pageable pageable,
+            ServletWebRequest request) {
         log.info("GET /api/books/search/titre-auteur - Recherche combinée: titre={}, auteur={}", titre, auteur);
+        if (catalogNotModified(request)) {
+            return null;
+        }
         Page<Book> books = bookService.searchByTitreAndAuteur(titre, auteur, pageable);
         return ResponseEntity.ok(books);
     }
 
+    /**
+     * Recherche avancée (titre ET auteur) (pagination par curseur)
+     * Activée par la présence du paramètre 'after' (vide pour la première tranche)
+     * @return tranche de livres et curseur suivant, sans nombre total
+     */
+    @GetMapping(value = "/search/titre-auteur", params = "after")
+    @Operation(summary = "Recherche avancée (titre ET auteur) (curseur)", description = "Recherche combinée avec pagination par clé sur l'id")
+    @ApiResponse(responseCode = "200", description = "Tranche de résultats")
+    @ApiCommonResponses
+    public ResponseEntity<CursorPage<Book>> searchByTitreAndAuteurAfter(
+            @Parameter(description = "Titre ou partie du titre", example = "Parachutage")
+            @RequestParam String titre,
+            @Parameter(description = "Auteur ou partie de l'auteur", example = "Zongo")
+            @RequestParam String auteur,
+            @Parameter(description = "Curseur opaque renvoyé par la tranche précédente (vide pour commencer)")
+            @RequestParam String after,
+            @Parameter(description = "Taille de la tranche", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest request) {
+        log.info("GET /api/books/search/titre-auteur - Recherche par curseur: titre={}, auteur={}", titre, auteur);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.searchByTitreAndAuteur(titre, auteur, BookCursor.parse(after, null), size));
+    }
+
     /**
      * Recherche les livres avec un prix maximum
      * @param prix le prix maximum
@@ -243,8 +707,12 @@ public class BookRestController {
             @Parameter(description = "Prix maximum", example = "10000")
             @RequestParam BigDecimal prix,
             @Parameter(description = "Paramètres de pagination optionnels (page, size, sort)")
-            Pageable pageable) {
+            Pageable pageable,
+            ServletWebRequest request) {
         log.info("GET /api/books/search/max-price - Recherche par prix max: {}", prix);
+        if (catalogNotModified(request)) {
+            return null;
+        }
         if (pageable.isPaged()) {
             Page<Book> books = bookService.searchByMaxPrice(prix, pageable);
             return ResponseEntity.ok(books);
@@ -254,6 +722,30 @@ public class BookRestController {
         }
     }
 
+    /**
+     * Rechercher par prix maximum (pagination par curseur)
+     * Activée par la présence du paramètre 'after' (vide pour la première tranche)
+     * @return tranche de livres et curseur suivant, sans nombre total
+     */
+    @GetMapping(value = "/search/max-price", params = "after")
+    @Operation(summary = "Rechercher par prix maximum (curseur)", description = "Recherche par prix maximum avec pagination par clé sur l'id")
+    @ApiResponse(responseCode = "200", description = "Tranche de résultats")
+    @ApiCommonResponses
+    public ResponseEntity<CursorPage<Book>> searchByMaxPriceAfter(
+            @Parameter(description = "Prix maximum", example = "10000")
+            @RequestParam BigDecimal prix,
+            @Parameter(description = "Curseur opaque renvoyé par la tranche précédente (vide pour commencer)")
+            @RequestParam String after,
+            @Parameter(description = "Taille de la tranche", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest request) {
+        log.info("GET /api/books/search/max-price - Recherche par curseur: prix max={}", prix);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.searchByMaxPrice(prix, BookCursor.parse(after, null), size));
+    }
+
     /**
      * Recherche les livres avec un prix minimum
      * @param prix le prix minimum
@@ -267,8 +759,12 @@ public class BookRestController {
             @Parameter(description = "Prix minimum", example = "5000")
             @RequestParam BigDecimal prix,
             @Parameter(description = "Paramètres de pagination optionnels (page, size, sort)")
-            Pageable pageable) {
+            Pageable pageable,
+            ServletWebRequest request) {
         log.info("GET /api/books/search/min-price - Recherche par prix min: {}", prix);
+        if (catalogNotModified(request)) {
+            return null;
+        }
         if (pageable.isPaged()) {
             Page<Book> books = bookService.searchByMinPrice(prix, pageable);
             return ResponseEntity.ok(books);
@@ -278,6 +774,30 @@ public class BookRestController {
         }
     }
 
+    /**
+     * Rechercher par prix minimum (pagination par curseur)
+     * Activée par la présence du paramètre 'after' (vide pour la première tranche)
+     * @return tranche de livres et curseur suivant, sans nombre total
+     */
+    @GetMapping(value = "/search/min-price", params = "after")
+    @Operation(summary = "Rechercher par prix minimum (curseur)", description = "Recherche par prix minimum avec pagination par clé sur l'id")
+    @ApiResponse(responseCode = "200", description = "Tranche de résultats")
+    @ApiCommonResponses
+    public ResponseEntity<CursorPage<Book>> searchByMinPriceAfter(
+            @Parameter(description = "Prix minimum", example = "5000")
+            @RequestParam BigDecimal prix,
+            @Parameter(description = "Curseur opaque renvoyé par la tranche précédente (vide pour commencer)")
+            @RequestParam String after,
+            @Parameter(description = "Taille de la tranche", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            ServletWebRequest request) {
+        log.info("GET /api/books/search/min-price - Recherche par curseur: prix min={}", prix);
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.searchByMinPrice(prix, BookCursor.parse(after, null), size));
+    }
+
     /**
      * Compte le nombre total de livres
      * @return nombre de livres dans la base
@@ -285,10 +805,105 @@ public class BookRestController {
     @GetMapping("/count")
     @Operation(summary = "Compter les livres", description = "Retourne le nombre total de livres")
     @ApiResponse(responseCode = "200", description = "Nombre de livres retourné")
-    public ResponseEntity<Long> countBooks() {
+    public ResponseEntity<Long> countBooks(ServletWebRequest request) {
         log.info("GET /api/books/count - Comptage des livres");
+        if (catalogNotModified(request)) {
+            return null;
+        }
         long count = bookService.countBooks();
         return ResponseEntity.ok(count);
     }
 
+    /**
+     * Statistiques du catalogue, maintenues en mémoire
+     * @return nombre de livres, prix min/max/moyen et total, livres par auteur
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "Statistiques du catalogue",
+               description = "Nombre de livres, prix minimum, maximum, moyen et total, nombre de livres par auteur "
+                       + "(maintenus en mémoire à chaque écriture)")
+    @ApiResponse(responseCode = "200", description = "Statistiques récupérées avec succès")
+    public ResponseEntity<CatalogStats> getCatalogStatistics(ServletWebRequest request) {
+        log.info("GET /api/books/stats - Statistiques du catalogue");
+        if (catalogNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(bookService.getCatalogStatistics());
+    }
+
+    /**
+     * Requête conditionnelle sur une collection : ETag et Last-Modified issus de la version du catalogue
+     * À appeler avant la requête : si le client a déjà la version courante, la réponse 304
+     * est envoyée sans exécuter la requête ni sérialiser de JSON (seule l'empreinte du catalogue est lue)
+     * @return true si la réponse 304 a été préparée (le contrôleur renvoie alors null)
+     */
+    private boolean catalogNotModified(ServletWebRequest request) {
+        revalidate(request);
+        CatalogVersion.Stamp stamp = catalogVersion.stamp();
+        return request.checkNotModified(stamp.etag(), stamp.lastModified().toEpochMilli());
+    }
+
+    /**
+     * Requête conditionnelle sur un livre : ETag fort "id-version" et date de dernière modification
+     * @return true si la réponse 304 a été préparée (le contrôleur renvoie alors null)
+     */
+    private boolean bookNotModified(ServletWebRequest request, Book book) {
+        revalidate(request);
+        long lastModified = book.getLastModified() != null ? book.getLastModified().toEpochMilli() : -1;
+        return request.checkNotModified(etag(book), lastModified);
+    }
+
+    /**
+     * ETag fort d'un livre : "id-version"
+     */
+    private static String etag(Book book) {
+        return "\"" + book.getId() + "-" + book.getVersion() + "\"";
+    }
+
+    /**
+     * Version attendue d'après l'en-tête If-Match ("id-version" tel que renvoyé dans l'ETag)
+     * @return null si l'en-tête est absent ou vaut *
+     * @throws VersionConflictException si l'ETag désigne un autre livre
+     */
+    private static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        int dash = value.lastIndexOf('-');
+        if (value.length() < 5 || !value.startsWith("\"") || !value.endsWith("\"") || dash < 2) {
+            throw new IllegalArgumentException("En-tête If-Match invalide, attendu \"id-version\": " + ifMatch);
+        }
+        try {
+            long etagId = Long.parseLong(value.substring(1, dash));
+            long version = Long.parseLong(value.substring(dash + 1, value.length() - 1));
+            if (etagId != id) {
+                throw new VersionConflictException("L'ETag " + value + " ne correspond pas au livre " + id);
+            }
+            return version;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("En-tête If-Match invalide, attendu \"id-version\": " + ifMatch);
+        }
+    }
+
+    /**
+     * Autorise la mise en cache privée à condition de revalider (remplace le no-store par défaut de Spring Security)
+     */
+    private static void revalidate(ServletWebRequest request) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+        }
+    }
+
+    /**
+     * Échappe une valeur CSV (guillemets si virgule, guillemet ou retour à la ligne)
+     */
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
 }
@@ -2,17 +2,19 @@ package bf.isge.gsn.controller;
 
 import bf.isge.gsn.entity.Book;
 import bf.isge.gsn.service.BookService;
+import bf.isge.gsn.writebehind.BookWriteBehind;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-
 /**
  * Contrôleur MVC pour l'interface web Thymeleaf
  * Gère les vues HTML pour la gestion des livres
@@ -23,28 +25,31 @@ import java.util.List;
 @Slf4j
 public class BookWebController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final BookService bookService;
+    private final BookWriteBehind bookWriteBehind;
 
     /**
-     * Affiche la liste de tous les livres
+     * Affiche la liste paginée des livres, filtrée par mot-clé (titre OU auteur)
      */
     @GetMapping
-    public String listBooks(@RequestParam(value = "keyword", required = false) String keyword, Model model) {
-        List<Book> books;
+    public String listBooks(@RequestParam(value = "keyword", required = false) String keyword,
+                            @PageableDefault(size = DEFAULT_PAGE_SIZE, sort = "id") Pageable pageable,
+                            Model model) {
+        Page<Book> page;
+        long totalBooks;
         if (keyword != null && !keyword.isBlank()) {
-            books = bookService.searchByTitre(keyword);
-            List<Book> byAuteur = bookService.searchByAuteur(keyword);
-            for (Book b : byAuteur) {
-                if (!books.contains(b)) {
-                    books.add(b);
-                }
-            }
+            page = bookService.searchByKeyword(keyword, pageable);
+            totalBooks = bookService.countBooks();
             model.addAttribute("keyword", keyword);
         } else {
-            books = bookService.getAllBooks();
+            page = bookService.getAllBooks(pageable);
+            totalBooks = page.getTotalElements();
         }
-        model.addAttribute("books", books);
-        model.addAttribute("totalBooks", bookService.countBooks());
+        model.addAttribute("books", page.getContent());
+        model.addAttribute("page", page);
+        model.addAttribute("totalBooks", totalBooks);
         return "books/list";
     }
 
@@ -82,7 +87,7 @@ public class BookWebController {
             bookService.updateBook(book.getId(), book);
             redirectAttributes.addFlashAttribute("successMessage", "Le livre a été modifié avec succès.");
         } else {
-            bookService.saveBook(book);
+            bookWriteBehind.saveBook(book);
             redirectAttributes.addFlashAttribute("successMessage", "Le livre a été ajouté avec succès.");
         }
         return "redirect:/books";
@@ -0,0 +1,46 @@
+package bf.isge.gsn.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Lecture forcée sur la base primaire pour une portion de code
+ *
+ * Les lectures qui alimentent un état durable (cache des livres, authentifications en cache,
+ * index en mémoire, contrôle des statistiques) ne doivent pas lire une réplique en retard :
+ * la valeur périmée survivrait à la fin du retard. Sans réplique configurée, sans effet.
+ *
+ * Le choix de la base se fait à la première requête SQL d'une transaction : une transaction
+ * déjà ouverte sur la réplique y reste.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Integer> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Integer depth = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(depth == null ? 1 : depth + 1);
+        try {
+            return action.get();
+        } finally {
+            if (depth == null) {
+                PRIMARY_FORCED.remove();
+            } else {
+                PRIMARY_FORCED.set(depth);
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+}
@@ -0,0 +1,59 @@
+package bf.isge.gsn.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Fenêtre de lecture de ses propres écritures, par utilisateur
+ *
+ * Après le commit d'une transaction en écriture, les lectures de l'utilisateur authentifié
+ * restent sur la base primaire pendant la fenêtre : il ne voit jamais une réplique qui n'a pas
+ * encore reçu ce qu'il vient d'écrire. Les requêtes anonymes ne sont pas suivies.
+ */
+public class ReadYourWrites {
+
+    /** Utilisateurs ayant écrit récemment (la présence suffit : l'entrée expire avec la fenêtre) */
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * @return l'utilisateur authentifié de la requête courante, null si anonyme
+     */
+    static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Écriture validée hors de la transaction de la requête (thread d'écriture différée) :
+     * ouvre la fenêtre pour l'utilisateur de la requête courante
+     */
+    public void recordCurrentUserWrite() {
+        recordWrite(currentUser());
+    }
+
+    void recordWrite(String username) {
+        if (username != null) {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    boolean wroteRecently(String username) {
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+}
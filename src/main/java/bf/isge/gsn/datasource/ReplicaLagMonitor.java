@@ -0,0 +1,102 @@
+package bf.isge.gsn.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Contrôle périodique de la réplique : joignable et en retard de moins de max-lag
+ *
+ * Le retard est mesuré par bookstore.datasource.routing.lag-query exécutée sur la réplique
+ * (secondes, null = 0) ; sans requête, seule la disponibilité est vérifiée. Une réplique
+ * inutilisable renvoie toutes les lectures vers la primaire jusqu'au contrôle suivant réussi.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    private static final String PING = "SELECT 1";
+
+    private final JdbcTemplate replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, Duration checkInterval) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(initialDelayString = "${bookstore.datasource.routing.check-interval:2s}",
+               fixedDelayString = "${bookstore.datasource.routing.check-interval:2s}")
+    public void check() {
+        double lag;
+        try {
+            if (lagQuery == null) {
+                replica.queryForObject(PING, Integer.class);
+                lag = 0;
+            } else {
+                Double measured = replica.queryForObject(lagQuery, Double.class);
+                lag = measured == null ? 0 : measured;
+            }
+        } catch (DataAccessException e) {
+            markUnavailable(e.getMostSpecificCause().getMessage());
+            return;
+        }
+        lagSeconds = lag;
+        boolean withinLag = lag * 1000 <= maxLag.toMillis();
+        if (withinLag != usable) {
+            if (withinLag) {
+                log.info("Réplique utilisable (retard {} s) : lectures seules dirigées vers la réplique", lag);
+            } else {
+                log.warn("Réplique en retard de {} s (max {}) : lectures dirigées vers la primaire", lag, maxLag);
+            }
+        }
+        usable = withinLag;
+    }
+
+    /**
+     * Réplique écartée jusqu'au prochain contrôle réussi (connexion refusée, requête en échec)
+     */
+    void markUnavailable(String reason) {
+        if (usable) {
+            log.warn("Réplique indisponible, lectures dirigées vers la primaire: {}", reason);
+        }
+        usable = false;
+        lagSeconds = Double.NaN;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    /**
+     * Dernier retard mesuré en secondes (NaN si la réplique est injoignable)
+     */
+    public double lagSeconds() {
+        return lagSeconds;
+    }
+
+    /**
+     * bookstore.datasource.replica.lag / available
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookstore.datasource.replica.lag", this, ReplicaLagMonitor::lagSeconds)
+                .description("Retard de la réplique")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("bookstore.datasource.replica.available", this, m -> m.isReplicaUsable() ? 1 : 0)
+                .description("Réplique utilisée pour les lectures (1) ou écartée (0)")
+                .register(registry);
+    }
+}
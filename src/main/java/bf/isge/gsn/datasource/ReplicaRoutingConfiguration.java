@@ -0,0 +1,87 @@
+package bf.isge.gsn.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Routage lecture/écriture vers une réplique (bookstore.datasource.routing.enabled=true)
+ *
+ * - primaire : spring.datasource.* et spring.datasource.hikari.* (comme sans routage)
+ * - réplique : pool HikariCP distinct, bookstore.datasource.replica.* (jdbc-url, username,
+ *   password, maximum-pool-size...)
+ * - DataSource de l'application : ReplicaRoutingDataSource derrière un LazyConnectionDataSourceProxy
+ *
+ * Désactivé, la DataSource unique de Spring Boot reste en place.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "bookstore.datasource.routing.enabled", havingValue = "true")
+@Slf4j
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("bookstore.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(
+            @Value("${bookstore.datasource.routing.read-your-writes:5s}") Duration window) {
+        return new ReadYourWrites(window);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${bookstore.datasource.routing.lag-query:}") String lagQuery,
+            @Value("${bookstore.datasource.routing.max-lag:5s}") Duration maxLag,
+            @Value("${bookstore.datasource.routing.check-interval:2s}") Duration checkInterval) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, lagQuery, maxLag, checkInterval);
+        // Premier contrôle avant toute lecture : une réplique injoignable au démarrage n'est pas utilisée
+        monitor.check();
+        return monitor;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReadYourWrites readYourWrites,
+            ReplicaLagMonitor replicaLagMonitor) {
+        return new ReplicaRoutingDataSource(primary, replica, readYourWrites, replicaLagMonitor);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica,
+                                 @Value("${bookstore.datasource.routing.read-your-writes:5s}") Duration window,
+                                 @Value("${bookstore.datasource.routing.max-lag:5s}") Duration maxLag) {
+        log.info("Routage lecture/écriture: transactions en lecture seule vers {} (retard max {}, "
+                 + "lecture de ses écritures sur la primaire pendant {})", replica.getJdbcUrl(), maxLag, window);
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
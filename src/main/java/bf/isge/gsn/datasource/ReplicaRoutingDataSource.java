@@ -0,0 +1,123 @@
+package bf.isge.gsn.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Aiguillage des connexions entre la base primaire et la réplique
+ *
+ * - transaction en lecture seule (@Transactional(readOnly = true)) → réplique, sauf si l'utilisateur
+ *   vient d'écrire (ReadYourWrites), si la réplique est en retard ou injoignable (ReplicaLagMonitor)
+ *   ou si l'appelant force la primaire (DataSourceRouting)
+ * - tout le reste (écritures, code hors transaction) → primaire ; le commit d'une transaction
+ *   en écriture ouvre la fenêtre de lecture de ses propres écritures de l'utilisateur
+ * - une connexion refusée par la réplique bascule immédiatement sur la primaire
+ *
+ * Doit être enveloppée dans un LazyConnectionDataSourceProxy : le drapeau lecture seule
+ * n'est positionné qu'après l'ouverture de la transaction, le choix se fait donc à la
+ * première requête SQL.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    enum Route {
+        WRITE, READ_YOUR_WRITES, FORCED, REPLICA_UNAVAILABLE, REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWrites readYourWrites;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Map<Route, Counter> routed = new EnumMap<>(Route.class);
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReadYourWrites readYourWrites, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWrites = readYourWrites;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(true);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = route();
+        Counter counter = routed.get(route);
+        if (counter != null) {
+            counter.increment();
+        }
+        return route;
+    }
+
+    private Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return Route.WRITE;
+        }
+        if (DataSourceRouting.isPrimaryForced()) {
+            return Route.FORCED;
+        }
+        if (readYourWrites.wroteRecently(ReadYourWrites.currentUser())) {
+            return Route.READ_YOUR_WRITES;
+        }
+        return lagMonitor.isReplicaUsable() ? Route.REPLICA : Route.REPLICA_UNAVAILABLE;
+    }
+
+    private void recordWriteOnCommit() {
+        String username = ReadYourWrites.currentUser();
+        if (username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.recordWrite(username);
+                }
+            });
+        } else {
+            // Écriture hors transaction (auto-commit) : validée dès l'exécution
+            readYourWrites.recordWrite(username);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target != replica) {
+            return target.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            lagMonitor.markUnavailable(e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * bookstore.datasource.routed{route=...} : connexions attribuées par motif
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Route route : Route.values()) {
+            routed.put(route, Counter.builder("bookstore.datasource.routed")
+                    .description("Connexions attribuées à la primaire ou à la réplique, par motif")
+                    .tag("route", route.name().toLowerCase().replace('_', '-'))
+                    .tag("target", route == Route.REPLICA ? "replica" : "primary")
+                    .register(registry));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package bf.isge.gsn.deadline;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataSource qui reporte l'échéance de la requête (RequestDeadline) sur chaque instruction JDBC
+ *
+ * Chaque Statement créé reçoit setQueryTimeout(temps restant, arrondi à la seconde supérieure) :
+ * une requête SQL encore en cours à l'échéance est annulée par le pilote (H2, PostgreSQL), au lieu
+ * de continuer pour un client parti. Hibernate traduit l'annulation en QueryTimeoutException (504).
+ * Échéance déjà dépassée : ni connexion ni instruction n'est créée (SQLTimeoutException).
+ *
+ * Le délai de transaction éventuel (@Transactional(timeout)) appliqué ensuite par Hibernate
+ * reste prioritaire. Sans échéance, les connexions sont celles de la DataSource cible.
+ */
+public class DeadlineAwareDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public DeadlineAwareDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        checkDeadline();
+        return withDeadline(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        checkDeadline();
+        return withDeadline(super.getConnection(username, password));
+    }
+
+    /**
+     * Fermeture du pool cible (HikariCP) à l'arrêt : la méthode de destruction est déduite de ce bean
+     */
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection withDeadline(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(DeadlineAwareDataSource.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "getTargetConnection":
+                            return connection;
+                        default:
+                            break;
+                    }
+                    boolean createsStatement = isStatementFactory(method);
+                    if (createsStatement) {
+                        checkDeadline();
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (createsStatement && RequestDeadline.isSet()) {
+                        long remainingSeconds = TimeUnit.NANOSECONDS.toSeconds(RequestDeadline.remainingNanos() + 999_999_999L);
+                        ((Statement) result).setQueryTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, remainingSeconds)));
+                    }
+                    return result;
+                });
+    }
+
+    private static boolean isStatementFactory(Method method) {
+        String name = method.getName();
+        return name.equals("createStatement") || name.equals("prepareStatement") || name.equals("prepareCall");
+    }
+
+    private static void checkDeadline() throws SQLTimeoutException {
+        if (RequestDeadline.remainingNanos() <= 0) {
+            throw new SQLTimeoutException("Délai de la requête écoulé, instruction SQL non exécutée");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package bf.isge.gsn.deadline;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Enveloppe la DataSource de l'application (bean dataSource : pool HikariCP de Spring Boot,
+ * ou routage primaire/réplique) dans une DeadlineAwareDataSource
+ *
+ * Les pools primaire et réplique du routage restent nus : le proxy est posé une seule fois,
+ * devant toute connexion obtenue par JPA ou JdbcTemplate.
+ */
+@Component
+@ConditionalOnProperty(name = "bookstore.deadline.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof DeadlineAwareDataSource)) {
+            return new DeadlineAwareDataSource(dataSource);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,58 @@
+package bf.isge.gsn.deadline;
+
+import bf.isge.gsn.exception.DeadlineExceededException;
+
+import java.time.Duration;
+
+/**
+ * Échéance de la requête en cours (thread de traitement)
+ *
+ * Positionnée par RequestDeadlineInterceptor, lue partout où la requête peut attendre :
+ * requêtes SQL (délai JDBC via DeadlineAwareDataSource), attente d'une recherche identique
+ * en cours, bulkhead, budget de la recherche approchée. Sans échéance, aucun effet.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    static void set(long deadlineNanos) {
+        DEADLINE_NANOS.set(deadlineNanos);
+    }
+
+    static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE_NANOS.get() != null;
+    }
+
+    /**
+     * @return le temps restant en nanosecondes (négatif si dépassé), Long.MAX_VALUE sans échéance
+     */
+    public static long remainingNanos() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    /**
+     * Le plus court du délai donné et du temps restant
+     */
+    public static Duration cap(Duration timeout) {
+        long remaining = remainingNanos();
+        return remaining < timeout.toNanos() ? Duration.ofNanos(Math.max(0, remaining)) : timeout;
+    }
+
+    /**
+     * @param operation ce qui allait être fait (message d'erreur)
+     * @throws DeadlineExceededException si l'échéance est dépassée
+     */
+    public static void check(String operation) {
+        if (remainingNanos() <= 0) {
+            throw new DeadlineExceededException("Délai de la requête écoulé avant : " + operation);
+        }
+    }
+}
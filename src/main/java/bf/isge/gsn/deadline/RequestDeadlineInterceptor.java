@@ -0,0 +1,119 @@
+package bf.isge.gsn.deadline;
+
+import bf.isge.gsn.exception.DeadlineExceededException;
+import bf.isge.gsn.resilience.EndpointClass;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Échéance de chaque requête : délai par classe d'endpoints, raccourci par l'en-tête client
+ *
+ * - bookstore.deadline.{search|point-read|write} : délai serveur par classe (EndpointClass)
+ * - X-Request-Deadline : budget restant en millisecondes (« 1500 ») ou instant ISO-8601
+ *   (« 2026-10-17T10:15:30.250Z ») ; le plus proche des deux l'emporte, le client ne peut pas
+ *   allonger le délai serveur. Les requêtes hors classe n'ont d'échéance que si le client en donne une.
+ *
+ * L'échéance est portée par le thread (RequestDeadline) jusqu'à la fin de la requête, ou jusqu'au
+ * passage en traitement asynchrone (exports en flux) : le thread Tomcat est alors rendu sans échéance.
+ */
+@Component
+@ConditionalOnProperty(name = "bookstore.deadline.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RequestDeadlineInterceptor implements AsyncHandlerInterceptor, WebMvcConfigurer {
+
+    public static final String DEADLINE_HEADER = "X-Request-Deadline";
+
+    /** Au-delà, l'échéance du client est ignorée (et sans risque de dépassement en nanosecondes) */
+    private static final Duration MAX_CLIENT_BUDGET = Duration.ofDays(1);
+
+    private final Map<EndpointClass, Duration> budgets = new EnumMap<>(EndpointClass.class);
+
+    public RequestDeadlineInterceptor(Environment environment) {
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            Duration budget = environment.getRequiredProperty("bookstore.deadline." + endpointClass.key(), Duration.class);
+            budgets.put(endpointClass, budget);
+        }
+        log.info("Délais des requêtes: {}", budgets);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long budget = Long.MAX_VALUE;
+        EndpointClass endpointClass = EndpointClass.of(request);
+        if (endpointClass != null) {
+            budget = budgets.get(endpointClass).toNanos();
+        }
+        String header = request.getHeader(DEADLINE_HEADER);
+        if (header != null && !header.isBlank()) {
+            budget = Math.min(budget, clientBudget(header.trim()));
+        }
+        if (budget <= 0) {
+            // Refus avant tout traitement (afterCompletion n'est pas appelé si preHandle échoue)
+            throw new DeadlineExceededException("Délai de la requête écoulé avant son traitement");
+        }
+        if (budget != Long.MAX_VALUE) {
+            RequestDeadline.set(now + budget);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+
+    /**
+     * Requête asynchrone : afterCompletion n'est pas appelé sur ce thread, qui servira d'autres requêtes
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestDeadline.clear();
+    }
+
+    /**
+     * @return le budget restant en nanosecondes indiqué par le client
+     * @throws IllegalArgumentException si l'en-tête n'est ni un nombre de millisecondes ni un instant ISO-8601
+     */
+    private static long clientBudget(String header) {
+        if (header.chars().allMatch(Character::isDigit)) {
+            // Plus de 18 chiffres : budget démesuré, pas de limite côté client
+            long millis = header.length() > 18 ? Long.MAX_VALUE : Long.parseLong(header);
+            return millis > MAX_CLIENT_BUDGET.toMillis() ? Long.MAX_VALUE : Duration.ofMillis(millis).toNanos();
+        }
+        Instant deadline;
+        try {
+            deadline = Instant.parse(header);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(DEADLINE_HEADER
+                    + " invalide : millisecondes restantes ou instant ISO-8601 attendus");
+        }
+        Duration remaining = Duration.between(Instant.now(), deadline);
+        if (remaining.isNegative()) {
+            return 0;
+        }
+        return remaining.compareTo(MAX_CLIENT_BUDGET) > 0 ? Long.MAX_VALUE : remaining.toNanos();
+    }
+}
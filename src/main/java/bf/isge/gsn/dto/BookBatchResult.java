@@ -0,0 +1,63 @@
+package bf.isge.gsn.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour le résultat d'un import de livres en lot (POST /api/books/batch)
+ * Un résultat par élément, dans l'ordre de la requête
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Résultat d'un import de livres en lot")
+public class BookBatchResult {
+
+    @Schema(description = "Nombre d'éléments reçus", example = "1000")
+    private int total;
+
+    @Schema(description = "Nombre de livres créés", example = "950")
+    private int created;
+
+    @Schema(description = "Nombre de livres mis à jour (titre déjà existant)", example = "48")
+    private int updated;
+
+    @Schema(description = "Nombre d'éléments rejetés", example = "2")
+    private int failed;
+
+    @Schema(description = "Résultat de chaque élément")
+    private List<ItemResult> items;
+
+    public enum Status { CREATED, UPDATED, FAILED }
+
+    /**
+     * DTO pour le résultat d'un élément du lot
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Résultat d'un élément du lot")
+    public static class ItemResult {
+
+        @Schema(description = "Position de l'élément dans la requête (à partir de 0)", example = "0")
+        private int index;
+
+        @Schema(description = "Issue du traitement", example = "CREATED")
+        private Status status;
+
+        @Schema(description = "Identifiant du livre créé ou mis à jour", example = "42")
+        private Long id;
+
+        @Schema(description = "Titre de l'élément", example = "Le Parachutage")
+        private String titre;
+
+        @Schema(description = "Raison du rejet (si FAILED)")
+        private String error;
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package bf.isge.gsn.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour la suppression d'un ensemble de livres
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Suppression d'un ensemble de livres par identifiant")
+public class BookBulkDeleteRequest {
+
+    @NotEmpty(message = "La liste des identifiants ne peut pas être vide")
+    @Schema(description = "Identifiants des livres à supprimer (les id inconnus sont ignorés)", example = "[12, 57, 58]")
+    private List<@NotNull(message = "Un identifiant ne peut pas être null") Long> ids;
+
+}
@@ -0,0 +1,26 @@
+package bf.isge.gsn.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour le résultat d'une opération de masse (révision de prix, suppression)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Résultat d'une opération de masse sur les livres")
+public class BookBulkResult {
+
+    @Schema(description = "Nombre de livres modifiés ou supprimés", example = "1250")
+    private int affected;
+
+    @Schema(description = "Nombre de tranches exécutées (une transaction par tranche)", example = "3")
+    private int chunks;
+
+    @Schema(description = "Durée totale en millisecondes", example = "184")
+    private long durationMs;
+
+}
@@ -0,0 +1,102 @@
+package bf.isge.gsn.dto;
+
+import bf.isge.gsn.entity.Book;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Curseur de pagination par clé sur les livres
+ *
+ * Mémorise la clé de tri et la position (valeur de tri, id) du dernier livre renvoyé.
+ * Encodé en Base64 URL pour rester opaque pour les clients.
+ * Le tri est toujours ascendant, l'id sert de départage ; le titre est comparé par sa clé de tri (titreTri).
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookCursor {
+
+    public enum SortKey { ID, TITRE, PRIX }
+
+    private final SortKey sortKey;
+
+    /** Id du dernier livre renvoyé (null pour la première tranche) */
+    private final Long lastId;
+
+    /** Valeur de la clé de tri du dernier livre (null pour ID ou la première tranche) */
+    private final String lastValue;
+
+    /**
+     * Construit le curseur à partir des paramètres de la requête
+     * @param after curseur opaque (vide pour la première tranche)
+     * @param sort clé de tri pour la première tranche (id, titre ou prix)
+     * @throws IllegalArgumentException si le curseur ou la clé de tri est invalide
+     */
+    public static BookCursor parse(String after, String sort) {
+        if (after == null || after.isBlank()) {
+            return new BookCursor(parseSortKey(sort), null, null);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(after), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 3);
+            SortKey key = SortKey.valueOf(parts[0]);
+            Long id = Long.valueOf(parts[1]);
+            String value = parts.length > 2 && key != SortKey.ID ? parts[2] : null;
+            if (key == SortKey.PRIX) {
+                new BigDecimal(value);
+            }
+            return new BookCursor(key, id, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur invalide: " + after);
+        }
+    }
+
+    private static SortKey parseSortKey(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return SortKey.ID;
+        }
+        try {
+            return SortKey.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tri non supporté pour la pagination par curseur: " + sort
+                    + " (valeurs possibles : id, titre, prix)");
+        }
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    /**
+     * Id de départ pour les requêtes "id > ?" (les id générés sont strictement positifs)
+     */
+    public long lastIdOrZero() {
+        return lastId == null ? 0L : lastId;
+    }
+
+    public BigDecimal lastPrix() {
+        return lastValue == null ? null : new BigDecimal(lastValue);
+    }
+
+    /**
+     * Curseur positionné après le livre donné
+     */
+    public BookCursor next(Book last) {
+        String value = switch (sortKey) {
+            case ID -> null;
+            case TITRE -> last.getTitreTri();
+            case PRIX -> last.getPrix().toPlainString();
+        };
+        return new BookCursor(sortKey, last.getId(), value);
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + ":" + lastId + (lastValue != null ? ":" + lastValue : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
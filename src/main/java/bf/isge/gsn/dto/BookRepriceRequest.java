@@ -0,0 +1,33 @@
+package bf.isge.gsn.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour la révision des prix de tous les livres d'un auteur
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Révision des prix de tous les livres d'un auteur")
+public class BookRepriceRequest {
+
+    @NotBlank(message = "L'auteur ne peut pas être vide")
+    @Schema(description = "Auteur (nom exact)", example = "Norbert ZONGO")
+    private String auteur;
+
+    @NotNull(message = "Le coefficient ne peut pas être null")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Le coefficient doit être supérieur à 0")
+    @Digits(integer = 4, fraction = 4, message = "Le coefficient doit avoir au plus 4 décimales")
+    @Schema(description = "Coefficient appliqué au prix (arrondi à 2 décimales)", example = "1.10")
+    private BigDecimal multiplier;
+
+}
@@ -0,0 +1,26 @@
+package bf.isge.gsn.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour une suggestion de saisie (titre ou auteur existant)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Titre ou auteur du catalogue commençant par le préfixe saisi")
+public class BookSuggestion {
+
+    @Schema(description = "Texte suggéré, tel qu'enregistré", example = "Norbert ZONGO")
+    private String text;
+
+    @Schema(description = "Champ d'origine", allowableValues = {"titre", "auteur"}, example = "auteur")
+    private String type;
+
+    @Schema(description = "Nombre de livres portant ce titre ou de cet auteur", example = "3")
+    private int books;
+
+}
@@ -0,0 +1,44 @@
+package bf.isge.gsn.dto;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO exposant les compteurs d'un cache (dimensionnement)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Statistiques d'un cache en mémoire")
+public class CacheStatsResponse {
+
+    @Schema(description = "Nom du cache", example = "books")
+    private String name;
+
+    @Schema(description = "Nombre d'entrées actuellement en cache", example = "350")
+    private long size;
+
+    @Schema(description = "Lectures servies par le cache", example = "98000")
+    private long hitCount;
+
+    @Schema(description = "Lectures ayant nécessité un chargement", example = "2000")
+    private long missCount;
+
+    @Schema(description = "Taux de succès (0 à 1)", example = "0.98")
+    private double hitRate;
+
+    @Schema(description = "Entrées évincées (taille ou expiration)", example = "120")
+    private long evictionCount;
+
+    @Schema(description = "Temps moyen de chargement en millisecondes", example = "1.8")
+    private double averageLoadPenaltyMillis;
+
+    public static CacheStatsResponse of(String name, long size, CacheStats stats) {
+        return new CacheStatsResponse(name, size, stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), stats.averageLoadPenalty() / 1_000_000.0);
+    }
+
+}
@@ -0,0 +1,54 @@
+package bf.isge.gsn.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DTO des statistiques du catalogue (nombre de livres, prix, répartition par auteur)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Statistiques du catalogue")
+public class CatalogStats {
+
+    @Schema(description = "Nombre total de livres", example = "1250")
+    private long count;
+
+    @Schema(description = "Prix le plus bas (null si le catalogue est vide)", example = "2500.00")
+    private BigDecimal minPrix;
+
+    @Schema(description = "Prix le plus élevé (null si le catalogue est vide)", example = "45000.00")
+    private BigDecimal maxPrix;
+
+    @Schema(description = "Prix moyen, arrondi à 2 décimales (null si le catalogue est vide)", example = "12480.35")
+    private BigDecimal avgPrix;
+
+    @Schema(description = "Somme des prix", example = "15600437.50")
+    private BigDecimal totalPrix;
+
+    @Schema(description = "Nombre d'auteurs distincts", example = "310")
+    private int auteurCount;
+
+    @Schema(description = "Nombre de livres par auteur, trié par nom d'auteur")
+    private Map<String, Long> booksByAuteur;
+
+    /**
+     * Calcule la moyenne et trie la répartition par auteur
+     */
+    public static CatalogStats of(long count, BigDecimal minPrix, BigDecimal maxPrix, BigDecimal totalPrix,
+                                  Map<String, Long> booksByAuteur) {
+        BigDecimal total = totalPrix != null ? totalPrix : BigDecimal.ZERO;
+        BigDecimal avg = count > 0 ? total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : null;
+        return new CatalogStats(count, minPrix, maxPrix, avg, total, booksByAuteur.size(),
+                Collections.unmodifiableMap(new TreeMap<>(booksByAuteur)));
+    }
+}
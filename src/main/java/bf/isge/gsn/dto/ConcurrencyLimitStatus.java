@@ -0,0 +1,48 @@
+package bf.isge.gsn.dto;
+
+import bf.isge.gsn.resilience.AdaptiveConcurrencyLimiter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO exposant l'état de la limite de concurrence d'une classe d'endpoints
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "État de la limite de concurrence adaptative d'une classe d'endpoints")
+public class ConcurrencyLimitStatus {
+
+    @Schema(description = "Classe d'endpoints", example = "search")
+    private String name;
+
+    @Schema(description = "Limite actuelle (requêtes simultanées)", example = "12")
+    private int limit;
+
+    @Schema(description = "Limite minimale", example = "2")
+    private int minLimit;
+
+    @Schema(description = "Limite maximale", example = "100")
+    private int maxLimit;
+
+    @Schema(description = "Requêtes en cours", example = "9")
+    private int inFlight;
+
+    @Schema(description = "Seuil de latence en millisecondes au-delà duquel la limite diminue", example = "500")
+    private long latencyThresholdMillis;
+
+    @Schema(description = "Requêtes refusées (503) depuis le démarrage", example = "340")
+    private long rejected;
+
+    @Schema(description = "Requêtes acceptées terminées en erreur serveur", example = "3")
+    private long dropped;
+
+    public static ConcurrencyLimitStatus of(AdaptiveConcurrencyLimiter limiter) {
+        return new ConcurrencyLimitStatus(limiter.getName(), limiter.getLimit(), limiter.getMinLimit(),
+                limiter.getMaxLimit(), limiter.getInFlight(), limiter.getLatencyThreshold().toMillis(),
+                limiter.getRejected(), limiter.getDropped());
+    }
+
+}
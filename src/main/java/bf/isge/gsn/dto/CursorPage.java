@@ -0,0 +1,32 @@
+package bf.isge.gsn.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour les réponses paginées par curseur (pagination par clé)
+ * Pas de nombre total : aucune requête count(*) n'est exécutée
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Tranche de résultats avec curseur vers la suivante")
+public class CursorPage<T> {
+
+    @Schema(description = "Éléments de la tranche")
+    private List<T> content;
+
+    @Schema(description = "Taille demandée", example = "20")
+    private int size;
+
+    @Schema(description = "Curseur opaque à passer dans 'after' pour obtenir la tranche suivante (null si dernière)")
+    private String nextCursor;
+
+    @Schema(description = "Indique s'il existe une tranche suivante")
+    private boolean hasNext;
+
+}
@@ -0,0 +1,24 @@
+package bf.isge.gsn.dto;
+
+import bf.isge.gsn.entity.Book;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour un résultat de recherche plein texte
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Livre trouvé par la recherche plein texte")
+public class FullTextMatch {
+
+    @Schema(description = "Livre trouvé")
+    private Book book;
+
+    @Schema(description = "Pertinence BM25 (plus élevée = plus pertinent)", example = "4.73")
+    private double score;
+
+}
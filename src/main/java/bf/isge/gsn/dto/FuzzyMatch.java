@@ -0,0 +1,24 @@
+package bf.isge.gsn.dto;
+
+import bf.isge.gsn.entity.Book;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour un résultat de recherche approchée
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Livre trouvé par la recherche approchée")
+public class FuzzyMatch {
+
+    @Schema(description = "Livre trouvé")
+    private Book book;
+
+    @Schema(description = "Nombre total de fautes corrigées (0 = tous les mots trouvés à l'identique)", example = "1")
+    private int distance;
+
+}
@@ -0,0 +1,25 @@
+package bf.isge.gsn.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour le résultat d'une recherche approchée, classé par distance croissante
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Résultat d'une recherche approchée (tolérante aux fautes de frappe)")
+public class FuzzySearchResult {
+
+    @Schema(description = "Livres trouvés, du plus proche au plus éloigné")
+    private List<FuzzyMatch> results;
+
+    @Schema(description = "false si le budget de temps a interrompu la recherche (résultats partiels)", example = "true")
+    private boolean complete;
+
+}
@@ -5,13 +5,16 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Entité représentant un utilisateur de l'application
  */
 @Entity
 @Table(name = "app_users")
+@EntityListeners(AppUserCacheListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,4 +35,13 @@ public class AppUser {
 
     @Column(nullable = false, length = 20)
     private String role;
+
+    /**
+     * Nom d'utilisateur lu en base, conservé par AppUserCacheListener pour invalider
+     * le cache d'authentification sous l'ancien nom après un renommage
+     */
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String loadedUsername;
 }
@@ -0,0 +1,54 @@
+package bf.isge.gsn.entity;
+
+import bf.isge.gsn.cache.AuthenticationCache;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Listener JPA : invalide le cache d'authentification quand un utilisateur
+ * est modifié (mot de passe, rôle, nom) ou supprimé
+ * Instancié par Spring (injection par constructeur)
+ *
+ * L'invalidation a lieu après le commit : avant, une connexion simultanée relirait l'ancien
+ * mot de passe et le remettrait en cache. Après un renommage, l'ancien et le nouveau nom sont invalidés.
+ */
+@RequiredArgsConstructor
+public class AppUserCacheListener {
+
+    private final AuthenticationCache authenticationCache;
+
+    @PostLoad
+    @PostPersist
+    public void onLoad(AppUser appUser) {
+        appUser.setLoadedUsername(appUser.getUsername());
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(AppUser appUser) {
+        Set<String> usernames = new LinkedHashSet<>();
+        if (appUser.getLoadedUsername() != null) {
+            usernames.add(appUser.getLoadedUsername());
+        }
+        usernames.add(appUser.getUsername());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            usernames.forEach(authenticationCache::invalidate);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                usernames.forEach(authenticationCache::invalidate);
+            }
+        });
+    }
+}
@@ -1,12 +1,20 @@
 package bf.isge.gsn.entity;
 
+import bf.isge.gsn.search.TextNormalizer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
+
 import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * Entité Book représentant un livre dans la base de données
@@ -16,18 +24,50 @@ import java.math.BigDecimal;
  * - titre : titre du livre
  * - auteur : auteur du livre
  * - prix : prix du livre
+ * - version : numéro de version (verrouillage optimiste, ETag)
+ * - lastModified : date de dernière modification (Last-Modified)
+ * - titreRecherche, auteurRecherche : titre et auteur en minuscules sans accents (recherches)
+ * - titreTri, auteurTri : clés de tri alphabétique (tri naturel, casse et accents ignorés)
+ *
+ * Les colonnes normalisées sont calculées par BookNormalizationListener (TextNormalizer) et ne sont
+ * pas exposées par l'API ; les lignes antérieures sont complétées au démarrage (BookSearchKeysBackfill).
+ *
+ * Index (recherche multicritère, tris) :
+ * - prix : plages de prix seules
+ * - (auteur, prix) : auteur exact (findByAuteur, findPriceRangeByAuteur, révision des prix par auteur) ;
+ *   inutilisable par la recherche multicritère, qui filtre auteur_recherche par LIKE '%x%'
+ * - titre_recherche, auteur_recherche : égalité et préfixe sans LOWER() sur la colonne ;
+ *   les recherches « contient » utilisent sous PostgreSQL des index GIN pg_trgm (README),
+ *   non déclarables ici
+ * - (titre_tri, id), (auteur_tri, id) : tri et pagination par curseur sur le titre ou l'auteur
  */
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_prix", columnList = "prix"),
+        @Index(name = "idx_books_auteur_prix", columnList = "auteur, prix"),
+        @Index(name = "idx_books_titre_recherche", columnList = "titre_recherche"),
+        @Index(name = "idx_books_auteur_recherche", columnList = "auteur_recherche"),
+        @Index(name = "idx_books_titre_tri", columnList = "titre_tri, id"),
+        @Index(name = "idx_books_auteur_tri", columnList = "auteur_tri, id")
+})
+@EntityListeners(BookNormalizationListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Représentation d'un livre dans le système")
 public class Book {
 
+    /** Nombre d'identifiants réservés à chaque appel de la séquence books_seq */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Séquence avec allocation par blocs (optimiseur pooled) :
+     * contrairement à IDENTITY, permet à Hibernate de regrouper les INSERT en batch JDBC
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = Book.ID_ALLOCATION_SIZE)
     @Schema(description = "Identifiant unique du livre", example = "1")
     private Long id;
 
@@ -50,4 +90,49 @@ public class Book {
     @Schema(description = "Prix du livre en CFA", example = "10000")
     private BigDecimal prix;
 
+    /**
+     * Incrémentée par Hibernate à chaque modification ; sert d'ETag fort ("id-version")
+     * Valeur par défaut en base pour les lignes existantes avant l'ajout de la colonne
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Version du livre (incrémentée à chaque modification)", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Date de dernière modification", example = "2026-01-15T10:30:00Z", accessMode = Schema.AccessMode.READ_ONLY)
+    private Instant lastModified;
+
+    /**
+     * Colonnes dérivées du titre et de l'auteur (BookNormalizationListener)
+     * Nullables en base pour que ddl-auto=update puisse les ajouter à une table existante
+     */
+    @Column(name = "titre_recherche", length = 255)
+    @JsonIgnore
+    @ToString.Exclude
+    @Schema(hidden = true)
+    private String titreRecherche;
+
+    @Column(name = "auteur_recherche", length = 255)
+    @JsonIgnore
+    @ToString.Exclude
+    @Schema(hidden = true)
+    private String auteurRecherche;
+
+    @Column(name = "titre_tri", length = TextNormalizer.SORT_KEY_LENGTH)
+    @JsonIgnore
+    @ToString.Exclude
+    @Schema(hidden = true)
+    private String titreTri;
+
+    @Column(name = "auteur_tri", length = TextNormalizer.SORT_KEY_LENGTH)
+    @JsonIgnore
+    @ToString.Exclude
+    @Schema(hidden = true)
+    private String auteurTri;
+
 }
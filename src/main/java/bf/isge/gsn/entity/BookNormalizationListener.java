@@ -0,0 +1,31 @@
+package bf.isge.gsn.entity;
+
+import bf.isge.gsn.search.TextNormalizer;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+
+/**
+ * Listener JPA : recalcule les colonnes normalisées du livre (recherche et tri)
+ * avant chaque INSERT et UPDATE
+ *
+ * Les écritures directes (BookRepositoryCustom.updateFields) et le complément des lignes
+ * existantes (BookSearchKeysBackfill) utilisent les mêmes règles via apply.
+ */
+public class BookNormalizationListener {
+
+    @PrePersist
+    @PreUpdate
+    public void normalize(Book book) {
+        apply(book);
+    }
+
+    /**
+     * Renseigne titreRecherche, auteurRecherche, titreTri et auteurTri à partir du titre et de l'auteur
+     */
+    public static void apply(Book book) {
+        book.setTitreRecherche(TextNormalizer.fold(book.getTitre()));
+        book.setAuteurRecherche(TextNormalizer.fold(book.getAuteur()));
+        book.setTitreTri(TextNormalizer.sortKey(book.getTitre()));
+        book.setAuteurTri(TextNormalizer.sortKey(book.getAuteur()));
+    }
+}
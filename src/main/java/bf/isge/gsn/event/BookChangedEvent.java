@@ -0,0 +1,61 @@
+package bf.isge.gsn.event;
+
+import bf.isge.gsn.entity.Book;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+
+/**
+ * Événement publié par BookService après chaque écriture sur un livre
+ * Permet aux structures en mémoire (index, caches...) de rester synchronisées
+ *
+ * Les livres transportés sont des copies détachées : ils ne doivent pas être
+ * modifiés par les listeners.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class BookChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final Type type;
+    private final Long bookId;
+
+    /** État avant l'écriture (null si inconnu ou création) */
+    private final Book previous;
+
+    /** État après l'écriture (null pour une suppression) */
+    private final Book current;
+
+    public static BookChangedEvent created(Book book) {
+        return new BookChangedEvent(Type.CREATED, book.getId(), null, snapshot(book));
+    }
+
+    public static BookChangedEvent updated(Book previous, Book current) {
+        return new BookChangedEvent(Type.UPDATED, current.getId(), snapshot(previous), snapshot(current));
+    }
+
+    public static BookChangedEvent deleted(Book book) {
+        return new BookChangedEvent(Type.DELETED, book.getId(), snapshot(book), null);
+    }
+
+    /**
+     * Suppression sans lecture préalable : l'état précédent peut être inconnu (null)
+     */
+    public static BookChangedEvent deleted(Long bookId, Book previous) {
+        return new BookChangedEvent(Type.DELETED, bookId, snapshot(previous), null);
+    }
+
+    /**
+     * Copie détachée d'un livre (l'entité managée peut encore évoluer dans la transaction)
+     */
+    public static Book snapshot(Book book) {
+        if (book == null) {
+            return null;
+        }
+        Book copy = new Book();
+        BeanUtils.copyProperties(book, copy);
+        return copy;
+    }
+}
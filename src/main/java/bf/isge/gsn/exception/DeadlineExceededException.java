@@ -0,0 +1,13 @@
+package bf.isge.gsn.exception;
+
+/**
+ * Exception levée quand le délai de la requête (RequestDeadline) est écoulé :
+ * le travail restant est abandonné plutôt que poursuivi pour un client qui n'attend plus
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+}
@@ -1,8 +1,13 @@
 package bf.isge.gsn.exception;
 
+import bf.isge.gsn.deadline.RequestDeadline;
 import bf.isge.gsn.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -22,6 +27,10 @@ import java.util.List;
  * 
  * Gère :
  * - ResourceNotFoundException (404)
+ * - VersionConflictException (412 - If-Match)
+ * - OptimisticLockingFailureException (409 - modification concurrente)
+ * - ServiceOverloadedException (503 - surcharge, avec Retry-After)
+ * - DeadlineExceededException, QueryTimeoutException (504 - échéance de la requête dépassée)
  * - MethodArgumentNotValidException (400 - validation)
  * - Exception générale (500)
  * 
@@ -131,6 +140,11 @@ public class GlobalExceptionHandler {
             WebRequest request,
             HttpServletRequest httpRequest) {
         
+        // Échec consécutif à l'échéance (connexion refusée, transaction annulée...) : même réponse que le dépassement
+        if (RequestDeadline.isSet() && RequestDeadline.remainingNanos() <= 0) {
+            return handleDeadlineExceededException(ex, request, httpRequest);
+        }
+
         log.error("Erreur serveur non gérée", ex);
 
         if (!isApiRequest(httpRequest)) {
@@ -176,4 +190,121 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Gère VersionConflictException (412 Precondition Failed)
+     * Levée quand la version fournie par If-Match n'est plus celle du livre
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public Object handleVersionConflictException(
+            VersionConflictException ex,
+            WebRequest request,
+            HttpServletRequest httpRequest) {
+
+        log.warn("Conflit de version: {}", ex.getMessage());
+
+        if (!isApiRequest(httpRequest)) {
+            return createErrorView(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+        }
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.PRECONDITION_FAILED.value())
+                .message("Version obsolète")
+                .details(ex.getMessage())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    /**
+     * Gère OptimisticLockingFailureException (409 Conflict)
+     * Levée par Hibernate quand une entité versionnée a été modifiée par une autre transaction
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Object handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex,
+            WebRequest request,
+            HttpServletRequest httpRequest) {
+
+        log.warn("Modification concurrente: {}", ex.getMessage());
+
+        if (!isApiRequest(httpRequest)) {
+            return createErrorView(HttpStatus.CONFLICT, "Le livre a été modifié entre-temps, veuillez réessayer.");
+        }
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.CONFLICT.value())
+                .message("Modification concurrente")
+                .details("Le livre a été modifié entre-temps, veuillez réessayer")
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Gère ServiceOverloadedException (503 Service Unavailable)
+     * Levée quand la capacité d'accès à la base est épuisée ; Retry-After indique quand réessayer
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Object handleServiceOverloadedException(
+            ServiceOverloadedException ex,
+            WebRequest request,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
+
+        log.warn("Surcharge: {}", ex.getMessage());
+        // Retry-After en secondes entières, arrondi au supérieur
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        httpResponse.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+
+        if (!isApiRequest(httpRequest)) {
+            return createErrorView(HttpStatus.SERVICE_UNAVAILABLE, "Le service est momentanément surchargé, veuillez réessayer.");
+        }
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message("Service surchargé")
+                .details(ex.getMessage())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Gère DeadlineExceededException et QueryTimeoutException (504 Gateway Timeout)
+     * Levées quand l'échéance de la requête (délai de l'endpoint ou X-Request-Deadline) est dépassée :
+     * la requête SQL en cours a été annulée, le client n'attend plus la réponse
+     */
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class})
+    @ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+    public Object handleDeadlineExceededException(
+            Exception ex,
+            WebRequest request,
+            HttpServletRequest httpRequest) {
+
+        log.warn("Échéance dépassée: {}", ex.getMessage());
+
+        if (!isApiRequest(httpRequest)) {
+            return createErrorView(HttpStatus.GATEWAY_TIMEOUT, "La requête a pris trop de temps, veuillez réessayer.");
+        }
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.GATEWAY_TIMEOUT.value())
+                .message("Délai dépassé")
+                .details(ex.getMessage())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
 }
@@ -0,0 +1,22 @@
+package bf.isge.gsn.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Exception levée quand l'application refuse une requête pour se protéger d'une surcharge
+ * (capacité d'accès à la base épuisée) : le client peut réessayer après le délai indiqué
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    /** Délai conseillé avant une nouvelle tentative (en-tête Retry-After) */
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+}
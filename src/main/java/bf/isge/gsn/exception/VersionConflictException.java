@@ -0,0 +1,13 @@
+package bf.isge.gsn.exception;
+
+/**
+ * Exception levée quand la version attendue d'une ressource (If-Match)
+ * ne correspond plus à la version en base : la ressource a été modifiée entre-temps
+ */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
+
+}
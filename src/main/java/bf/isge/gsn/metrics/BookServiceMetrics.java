@@ -0,0 +1,121 @@
+package bf.isge.gsn.metrics;
+
+import bf.isge.gsn.dto.BookCursor;
+import bf.isge.gsn.dto.CursorPage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Métriques des méthodes publiques de BookService
+ *
+ * - bookstore.service : durée de chaque appel (Timer)
+ *   tags : operation (nom de la méthode), pagination (paged, cursor, unpaged), exception
+ * - bookstore.search.results : nombre de livres renvoyés par les méthodes search*
+ * - bookstore.search.matches : nombre total de correspondances (pagination par offset)
+ *
+ * Les percentiles et histogrammes sont configurés dans application.properties
+ * (management.metrics.distribution.*)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class BookServiceMetrics {
+
+    static final String SERVICE_TIMER = "bookstore.service";
+    static final String SEARCH_RESULTS = "bookstore.search.results";
+    static final String SEARCH_MATCHES = "bookstore.search.matches";
+
+    private final MeterRegistry registry;
+
+    /** Compteurs résolus une fois par méthode (évite la recherche dans le registre à chaque appel) */
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    @Around("execution(public * bf.isge.gsn.service.BookService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters methodMeters = meters.computeIfAbsent(method, this::register);
+
+        Timer.Sample sample = Timer.start(registry);
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            sample.stop(Timer.builder(SERVICE_TIMER)
+                    .tags(methodMeters.tags)
+                    .tag("exception", e.getClass().getSimpleName())
+                    .register(registry));
+            throw e;
+        }
+        sample.stop(methodMeters.timer);
+        methodMeters.recordResult(result);
+        return result;
+    }
+
+    private MethodMeters register(Method method) {
+        Tags tags = Tags.of("operation", method.getName(), "pagination", pagination(method));
+        Timer timer = Timer.builder(SERVICE_TIMER)
+                .description("Durée des appels à BookService")
+                .tags(tags)
+                .tag("exception", "none")
+                .register(registry);
+
+        if (!method.getName().startsWith("search")) {
+            return new MethodMeters(tags, timer, null, null);
+        }
+        DistributionSummary results = DistributionSummary.builder(SEARCH_RESULTS)
+                .description("Nombre de livres renvoyés par une recherche")
+                .baseUnit("books")
+                .tags(tags)
+                .register(registry);
+        DistributionSummary matches = DistributionSummary.builder(SEARCH_MATCHES)
+                .description("Nombre total de livres correspondant à une recherche paginée")
+                .baseUnit("books")
+                .tags(tags)
+                .register(registry);
+        return new MethodMeters(tags, timer, results, matches);
+    }
+
+    private static String pagination(Method method) {
+        for (Class<?> type : method.getParameterTypes()) {
+            if (Pageable.class.isAssignableFrom(type)) {
+                return "paged";
+            }
+            if (BookCursor.class.isAssignableFrom(type)) {
+                return "cursor";
+            }
+        }
+        return "unpaged";
+    }
+
+    private record MethodMeters(Tags tags, Timer timer, DistributionSummary results, DistributionSummary matches) {
+
+        void recordResult(Object result) {
+            if (results == null) {
+                return;
+            }
+            if (result instanceof Page<?> page) {
+                results.record(page.getNumberOfElements());
+                matches.record(page.getTotalElements());
+            } else if (result instanceof CursorPage<?> cursorPage) {
+                results.record(cursorPage.getContent().size());
+            } else if (result instanceof Collection<?> collection) {
+                results.record(collection.size());
+            }
+        }
+    }
+}
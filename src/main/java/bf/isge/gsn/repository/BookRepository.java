@@ -1,24 +1,37 @@
 package bf.isge.gsn.repository;
 
 import bf.isge.gsn.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository JPA pour l'entité Book
  * Fournit les opérations CRUD et les méthodes de recherche personnalisées
  * Optimisé pour éviter les problèmes de performance avec de grandes données
+ * Écritures directes (UPDATE/DELETE en une requête) : voir BookRepositoryCustom
+ * Recherche multicritère dynamique : voir BookSpecifications
+ * Recherches partielles et tris sur titre/auteur : colonnes normalisées (titreRecherche, titreTri...),
+ * les paramètres sont normalisés par l'appelant (TextNormalizer.fold)
  */
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
 
     /**
      * Recherche un livre par son titre (recherche exacte)
@@ -27,6 +40,13 @@ public interface BookRepository extends JpaRepository<Book, Long> {
      */
     Optional<Book> findByTitre(String titre);
 
+    /**
+     * Recherche les livres dont le titre figure dans la liste (import en lot)
+     * @param titres titres exacts recherchés
+     * @return Liste des livres existants
+     */
+    List<Book> findByTitreIn(Collection<String> titres);
+
     /**
      * Recherche tous les livres d'un auteur donné
      * @param auteur l'auteur du livre
@@ -35,36 +55,36 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     List<Book> findByAuteur(String auteur);
 
     /**
-     * Recherche les livres contenant le titre spécifié (recherche partielle, insensible à la casse)
-     * @param titre partie du titre à rechercher
+     * Recherche les livres contenant le titre spécifié (recherche partielle sur la colonne normalisée)
+     * @param titre partie du titre à rechercher, normalisée par TextNormalizer.fold
      * @return Liste des livres correspondant
      */
-    List<Book> findByTitreContainingIgnoreCase(String titre);
+    List<Book> findByTitreRechercheContaining(String titre);
 
     /**
      * Recherche les livres contenant le titre spécifié avec pagination
      * Optimisé pour les grandes listes de résultats
-     * @param titre partie du titre à rechercher
+     * @param titre partie du titre à rechercher, normalisée par TextNormalizer.fold
      * @param pageable paramètres de pagination
      * @return Page de livres correspondant
      */
-    Page<Book> findByTitreContainingIgnoreCase(String titre, Pageable pageable);
+    Page<Book> findByTitreRechercheContaining(String titre, Pageable pageable);
 
     /**
-     * Recherche les livres contenant l'auteur spécifié (recherche partielle, insensible à la casse)
-     * @param auteur partie de l'auteur à rechercher
+     * Recherche les livres contenant l'auteur spécifié (recherche partielle sur la colonne normalisée)
+     * @param auteur partie de l'auteur à rechercher, normalisée par TextNormalizer.fold
      * @return Liste des livres correspondant
      */
-    List<Book> findByAuteurContainingIgnoreCase(String auteur);
+    List<Book> findByAuteurRechercheContaining(String auteur);
 
     /**
      * Recherche les livres contenant l'auteur spécifié avec pagination
      * Optimisé pour les grandes listes de résultats
-     * @param auteur partie de l'auteur à rechercher
+     * @param auteur partie de l'auteur à rechercher, normalisée par TextNormalizer.fold
      * @param pageable paramètres de pagination
      * @return Page de livres correspondant
      */
-    Page<Book> findByAuteurContainingIgnoreCase(String auteur, Pageable pageable);
+    Page<Book> findByAuteurRechercheContaining(String auteur, Pageable pageable);
 
     /**
      * Recherche les livres dont le prix est inférieur ou égal au montant spécifié
@@ -99,15 +119,203 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     /**
      * Recherche personnalisée combinée : titre ET auteur (optimisée avec DISTINCT)
      * Utilise une requête JPQL optimisée avec DISTINCT pour éviter les doublons
-     * @param titre partie du titre à rechercher
-     * @param auteur partie de l'auteur à rechercher
+     * @param titre partie du titre à rechercher, normalisée par TextNormalizer.fold
+     * @param auteur partie de l'auteur à rechercher, normalisée par TextNormalizer.fold
      * @param pageable paramètres de pagination
      * @return Page de livres correspondant aux deux critères
      */
-    @Query("SELECT DISTINCT b FROM Book b WHERE LOWER(b.titre) LIKE LOWER(CONCAT('%', :titre, '%')) " +
-           "AND LOWER(b.auteur) LIKE LOWER(CONCAT('%', :auteur, '%'))")
+    @Query("SELECT DISTINCT b FROM Book b WHERE b.titreRecherche LIKE CONCAT('%', :titre, '%') " +
+           "AND b.auteurRecherche LIKE CONCAT('%', :auteur, '%')")
     Page<Book> findByTitreAndAuteurContaining(@Param("titre") String titre, 
                                                @Param("auteur") String auteur, 
                                                Pageable pageable);
 
+    /**
+     * Recherche par mot-clé : titre OU auteur, en une seule requête
+     * Chaque livre n'apparaît qu'une fois, même s'il correspond sur les deux colonnes
+     * @param keyword partie du titre ou de l'auteur, normalisée par TextNormalizer.fold
+     * @param pageable paramètres de pagination
+     * @return Page de livres correspondant à l'un des deux critères
+     */
+    @Query("SELECT b FROM Book b WHERE b.titreRecherche LIKE CONCAT('%', :keyword, '%') " +
+           "OR b.auteurRecherche LIKE CONCAT('%', :keyword, '%')")
+    Page<Book> findByTitreOrAuteurContaining(@Param("keyword") String keyword, Pageable pageable);
+
+    /**
+     * Charge une page de livres parmi un ensemble d'identifiants
+     * Utilisé pour hydrater les résultats de l'index trigrammes quand un tri est demandé
+     * @param ids identifiants des livres
+     * @param pageable paramètres de pagination
+     * @return Page de livres
+     */
+    Page<Book> findByIdIn(Collection<Long> ids, Pageable pageable);
+
+    /**
+     * Lecture par tranches ordonnées sur l'id (pagination par clé, sans OFFSET)
+     * @param id dernier identifiant lu
+     * @param limit taille de la tranche
+     * @return les livres d'identifiant strictement supérieur
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Lecture par tranches des livres modifiés depuis une date, ordonnée sur l'id (rattrapage d'un index persistant)
+     * @param lastModified date de modification minimale
+     * @param id dernier identifiant lu
+     * @param limit taille de la tranche
+     * @return les livres modifiés depuis cette date, d'identifiant strictement supérieur
+     */
+    List<Book> findByLastModifiedGreaterThanEqualAndIdGreaterThanOrderByIdAsc(Instant lastModified, Long id, Limit limit);
+
+    /**
+     * Identifiants encore présents en base parmi ceux donnés (détection des suppressions manquées)
+     * @param ids identifiants à vérifier
+     * @return les identifiants existants
+     */
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lecture par tranches des livres d'un auteur (nom exact), ordonnée sur l'id
+     * @param auteur l'auteur du livre
+     * @param id dernier identifiant lu
+     * @param limit taille de la tranche
+     * @return les livres de cet auteur d'identifiant strictement supérieur
+     */
+    List<Book> findByAuteurAndIdGreaterThanOrderByIdAsc(String auteur, Long id, Limit limit);
+
+    /**
+     * Prix minimum et maximum des livres d'un auteur (contrôle avant une révision de prix)
+     * @param auteur l'auteur du livre (nom exact)
+     * @return les bornes, nulles si l'auteur n'a aucun livre
+     */
+    @Query("SELECT MIN(b.prix) AS min, MAX(b.prix) AS max FROM Book b WHERE b.auteur = :auteur")
+    PriceRange findPriceRangeByAuteur(@Param("auteur") String auteur);
+
+    /**
+     * Applique un coefficient au prix d'un ensemble de livres, en une requête
+     * UPDATE books SET prix = ROUND(prix * ?, 2), version = version + 1, last_modified = ? WHERE id IN (...)
+     * @param ids identifiants des livres
+     * @param multiplier coefficient appliqué au prix
+     * @param lastModified date de modification à enregistrer
+     * @return nombre de lignes modifiées
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.prix = ROUND(b.prix * :multiplier, 2), b.version = b.version + 1, " +
+           "b.lastModified = :lastModified WHERE b.id IN :ids")
+    int repriceByIdIn(@Param("ids") Collection<Long> ids,
+                      @Param("multiplier") BigDecimal multiplier,
+                      @Param("lastModified") Instant lastModified);
+
+    /**
+     * Supprime un ensemble de livres en une requête : DELETE FROM books WHERE id IN (...)
+     * @param ids identifiants des livres
+     * @return nombre de lignes supprimées
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Book b WHERE b.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Agrégats du catalogue en une requête (secours et contrôle des statistiques en mémoire)
+     * @return nombre de livres, prix minimum, maximum et total (bornes nulles si la table est vide)
+     */
+    @Query("SELECT COUNT(b) AS count, MIN(b.prix) AS min, MAX(b.prix) AS max, SUM(b.prix) AS total FROM Book b")
+    CatalogTotals summarizeCatalog();
+
+    /**
+     * Empreinte de la table books, identique sur toutes les instances pour un même contenu (CatalogVersion) :
+     * une insertion ou une suppression change le nombre et la somme des identifiants (jamais réutilisés),
+     * une modification la somme des versions (incrémentée à chaque UPDATE)
+     */
+    @Query("SELECT COUNT(b) AS count, COALESCE(SUM(b.id), 0) AS idSum, COALESCE(SUM(b.version), 0) AS versionSum, " +
+           "MAX(b.lastModified) AS lastModified FROM Book b")
+    CatalogFingerprint fingerprintCatalog();
+
+    /**
+     * Nombre de livres par auteur
+     * @return un élément par auteur distinct
+     */
+    @Query("SELECT b.auteur AS auteur, COUNT(b) AS count FROM Book b GROUP BY b.auteur")
+    List<AuteurCount> countByAuteur();
+
+    /**
+     * Bornes de prix (projection)
+     */
+    interface PriceRange {
+        BigDecimal getMin();
+        BigDecimal getMax();
+    }
+
+    /**
+     * Agrégats du catalogue (projection)
+     */
+    interface CatalogTotals extends PriceRange {
+        long getCount();
+        BigDecimal getTotal();
+    }
+
+    /**
+     * Empreinte du catalogue (projection), date de dernière modification nulle si la table est vide
+     */
+    interface CatalogFingerprint {
+        long getCount();
+        long getIdSum();
+        long getVersionSum();
+        Instant getLastModified();
+    }
+
+    /**
+     * Nombre de livres d'un auteur (projection)
+     */
+    interface AuteurCount {
+        String getAuteur();
+        long getCount();
+    }
+
+    // ========================
+    // Pagination par clé (curseur) : prédicats de recherche, sans OFFSET ni count(*)
+    // ========================
+
+    // Tri par titre : clé de tri normalisée (index titre_tri, id)
+    List<Book> findAllByOrderByTitreTriAscIdAsc(Limit limit);
+
+    @Query("SELECT b FROM Book b WHERE b.titreTri > :titreTri OR (b.titreTri = :titreTri AND b.id > :id) " +
+           "ORDER BY b.titreTri, b.id")
+    List<Book> findByTitreTriAfter(@Param("titreTri") String titreTri, @Param("id") Long id, Limit limit);
+
+    List<Book> findAllByOrderByPrixAscIdAsc(Limit limit);
+
+    @Query("SELECT b FROM Book b WHERE b.prix > :prix OR (b.prix = :prix AND b.id > :id) " +
+           "ORDER BY b.prix, b.id")
+    List<Book> findByPrixAfter(@Param("prix") BigDecimal prix, @Param("id") Long id, Limit limit);
+
+    List<Book> findByTitreRechercheContainingAndIdGreaterThanOrderByIdAsc(String titre, Long id, Limit limit);
+
+    List<Book> findByAuteurRechercheContainingAndIdGreaterThanOrderByIdAsc(String auteur, Long id, Limit limit);
+
+    @Query("SELECT b FROM Book b WHERE b.titreRecherche LIKE CONCAT('%', :titre, '%') " +
+           "AND b.auteurRecherche LIKE CONCAT('%', :auteur, '%') AND b.id > :id ORDER BY b.id")
+    List<Book> findByTitreAndAuteurContainingAfter(@Param("titre") String titre,
+                                                   @Param("auteur") String auteur,
+                                                   @Param("id") Long id,
+                                                   Limit limit);
+
+    List<Book> findByPrixLessThanEqualAndIdGreaterThanOrderByIdAsc(BigDecimal prix, Long id, Limit limit);
+
+    List<Book> findByPrixGreaterThanEqualAndIdGreaterThanOrderByIdAsc(BigDecimal prix, Long id, Limit limit);
+
+    /**
+     * Parcourt tous les livres sous forme de flux (curseur JDBC)
+     * Les lignes sont lues par paquets de 500 (fetch size) au lieu d'être chargées en une fois
+     * Doit être consommé dans une transaction et fermé après usage
+     * @return flux ordonné par id
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAllBy();
+
 }
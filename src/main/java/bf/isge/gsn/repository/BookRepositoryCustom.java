@@ -0,0 +1,32 @@
+package bf.isge.gsn.repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Écritures en une seule requête SQL, sans lecture préalable du livre
+ * (fragment implémenté par BookRepositoryCustomImpl)
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * UPDATE books SET &lt;colonnes non nulles et leurs formes normalisées&gt;, version = version + 1,
+     * last_modified = ? WHERE id = ? [AND version = ?]
+     * @param id l'identifiant du livre
+     * @param titre nouveau titre (null = inchangé)
+     * @param auteur nouvel auteur (null = inchangé)
+     * @param prix nouveau prix (null = inchangé)
+     * @param expectedVersion version attendue (null = pas de contrôle)
+     * @param lastModified date de modification à enregistrer
+     * @return nombre de lignes modifiées (0 : livre absent ou version différente)
+     */
+    int updateFields(Long id, String titre, String auteur, BigDecimal prix, Long expectedVersion, Instant lastModified);
+
+    /**
+     * DELETE FROM books WHERE id = ? [AND version = ?]
+     * @param id l'identifiant du livre
+     * @param expectedVersion version attendue (null = pas de contrôle)
+     * @return nombre de lignes supprimées (0 : livre absent ou version différente)
+     */
+    int deleteByIdAndVersion(Long id, Long expectedVersion);
+}
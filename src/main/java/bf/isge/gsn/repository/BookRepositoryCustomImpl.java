@@ -0,0 +1,80 @@
+package bf.isge.gsn.repository;
+
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.search.TextNormalizer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Implémentation des écritures directes (Criteria API)
+ *
+ * Ces requêtes contournent le contexte de persistance : une éventuelle instance
+ * managée du livre est détachée pour que la prochaine lecture recharge la ligne.
+ * La version est incrémentée explicitement, comme le ferait Hibernate.
+ */
+@RequiredArgsConstructor
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int updateFields(Long id, String titre, String auteur, BigDecimal prix, Long expectedVersion, Instant lastModified) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Book> update = cb.createCriteriaUpdate(Book.class);
+        Root<Book> book = update.from(Book.class);
+
+        // Le listener JPA n'est pas appelé : colonnes normalisées mises à jour ici
+        if (titre != null) {
+            update.set(book.<String>get("titre"), titre);
+            update.set(book.<String>get("titreRecherche"), TextNormalizer.fold(titre));
+            update.set(book.<String>get("titreTri"), TextNormalizer.sortKey(titre));
+        }
+        if (auteur != null) {
+            update.set(book.<String>get("auteur"), auteur);
+            update.set(book.<String>get("auteurRecherche"), TextNormalizer.fold(auteur));
+            update.set(book.<String>get("auteurTri"), TextNormalizer.sortKey(auteur));
+        }
+        if (prix != null) {
+            update.set(book.<BigDecimal>get("prix"), prix);
+        }
+        update.set(book.<Long>get("version"), cb.sum(book.<Long>get("version"), 1L));
+        update.set(book.<Instant>get("lastModified"), lastModified);
+        update.where(byIdAndVersion(cb, book, id, expectedVersion));
+
+        int rows = entityManager.createQuery(update).executeUpdate();
+        detach(id);
+        return rows;
+    }
+
+    @Override
+    public int deleteByIdAndVersion(Long id, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<Book> delete = cb.createCriteriaDelete(Book.class);
+        Root<Book> book = delete.from(Book.class);
+        delete.where(byIdAndVersion(cb, book, id, expectedVersion));
+
+        int rows = entityManager.createQuery(delete).executeUpdate();
+        detach(id);
+        return rows;
+    }
+
+    private static Predicate byIdAndVersion(CriteriaBuilder cb, Root<Book> book, Long id, Long expectedVersion) {
+        Predicate byId = cb.equal(book.get("id"), id);
+        return expectedVersion == null ? byId : cb.and(byId, cb.equal(book.get("version"), expectedVersion));
+    }
+
+    /**
+     * getReference ne déclenche aucune requête : renvoie l'instance managée si elle existe, sinon un proxy
+     */
+    private void detach(Long id) {
+        entityManager.detach(entityManager.getReference(Book.class, id));
+    }
+}
@@ -0,0 +1,77 @@
+package bf.isge.gsn.repository;
+
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.search.TextNormalizer;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Critères de recherche des livres (Specifications JPA)
+ *
+ * Seuls les critères renseignés sont ajoutés au WHERE : une recherche multicritère
+ * reste une seule requête, quelle que soit la combinaison demandée.
+ * Titre et auteur sont comparés sur leurs colonnes normalisées (casse et accents ignorés).
+ */
+public final class BookSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Combine les critères non vides (ET logique)
+     * @param titre partie du titre (insensible à la casse)
+     * @param auteur partie de l'auteur (insensible à la casse)
+     * @param minPrix prix minimum inclus
+     * @param maxPrix prix maximum inclus
+     * @return la spécification, sans restriction si aucun critère n'est fourni
+     */
+    public static Specification<Book> matching(String titre, String auteur, BigDecimal minPrix, BigDecimal maxPrix) {
+        List<Specification<Book>> criteria = new ArrayList<>(4);
+        if (titre != null && !titre.isBlank()) {
+            criteria.add(titreContains(titre));
+        }
+        if (auteur != null && !auteur.isBlank()) {
+            criteria.add(auteurContains(auteur));
+        }
+        if (minPrix != null) {
+            criteria.add(prixAtLeast(minPrix));
+        }
+        if (maxPrix != null) {
+            criteria.add(prixAtMost(maxPrix));
+        }
+        return Specification.allOf(criteria);
+    }
+
+    public static Specification<Book> titreContains(String titre) {
+        return (root, query, cb) -> cb.like(root.get("titreRecherche"), containsPattern(titre), LIKE_ESCAPE);
+    }
+
+    public static Specification<Book> auteurContains(String auteur) {
+        return (root, query, cb) -> cb.like(root.get("auteurRecherche"), containsPattern(auteur), LIKE_ESCAPE);
+    }
+
+    public static Specification<Book> prixAtLeast(BigDecimal prix) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("prix"), prix);
+    }
+
+    public static Specification<Book> prixAtMost(BigDecimal prix) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("prix"), prix);
+    }
+
+    /**
+     * %valeur% en minuscules sans accents (comme les colonnes normalisées) ;
+     * les jokers saisis (% et _) sont recherchés littéralement
+     */
+    private static String containsPattern(String value) {
+        String escaped = TextNormalizer.fold(value.trim())
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
@@ -0,0 +1,123 @@
+package bf.isge.gsn.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite de concurrence adaptative (AIMD) d'une classe d'endpoints
+ *
+ * - un appel est accepté tant que le nombre d'appels en cours est sous la limite, sinon refusé
+ *   immédiatement (pas de file d'attente)
+ * - augmentation additive : +1/limite par appel terminé sous le seuil de latence, soit environ +1
+ *   par « tour » complet de la limite, seulement si la limite est réellement utilisée (au moins
+ *   à moitié au départ de l'appel)
+ * - diminution multiplicative (backoff-ratio) quand un appel dépasse le seuil ou échoue (5xx) ;
+ *   les appels partis avant la dernière diminution n'en déclenchent pas de nouvelle : ils
+ *   mesurent encore l'ancienne limite
+ *
+ * Quand le pool de connexions sature, l'attente d'une connexion s'ajoute à la latence : la limite
+ * redescend jusqu'à ce que les appels acceptés tiennent à nouveau dans le seuil.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile double limit;
+    /** Début de la dernière diminution (protégé par this) */
+    private long lastDecreaseNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      Duration latencyThreshold, double backoffRatio) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Limites de concurrence invalides pour " + name
+                    + " : min " + minLimit + ", max " + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * @return le nombre d'appels en cours au départ de celui-ci, ou -1 si la limite est atteinte
+     */
+    public int tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return -1;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return current;
+    }
+
+    /**
+     * Fin d'un appel accepté par tryAcquire
+     * @param startNanos System.nanoTime() au départ de l'appel
+     * @param inFlightAtStart valeur renvoyée par tryAcquire
+     * @param failed appel en échec côté serveur (5xx, exception)
+     */
+    public void release(long startNanos, int inFlightAtStart, boolean failed) {
+        inFlight.decrementAndGet();
+        long latency = System.nanoTime() - startNanos;
+        if (failed) {
+            dropped.increment();
+        }
+        update(startNanos, latency, inFlightAtStart, failed);
+    }
+
+    private synchronized void update(long startNanos, long latency, int inFlightAtStart, boolean failed) {
+        if (failed || latency > latencyThresholdNanos) {
+            if (startNanos - lastDecreaseNanos > 0) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = System.nanoTime();
+            }
+        } else if (inFlightAtStart * 2 >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public Duration getLatencyThreshold() {
+        return Duration.ofNanos(latencyThresholdNanos);
+    }
+}
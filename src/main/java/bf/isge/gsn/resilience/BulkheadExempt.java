@@ -0,0 +1,19 @@
+package bf.isge.gsn.resilience;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Méthode de service exclue du bulkhead (DatabaseBulkhead), ainsi que les appels aux dépôts qu'elle fait
+ *
+ * Réservée aux parcours longs (exports en flux) : leur connexion reste prise pendant tout le transfert,
+ * au rythme du client. Ils restent bornés par le pool HikariCP, sans priver de permis les appels courts.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BulkheadExempt {
+}
@@ -0,0 +1,157 @@
+package bf.isge.gsn.resilience;
+
+import bf.isge.gsn.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Délestage par classe d'endpoints (recherche, lecture unitaire, écriture)
+ *
+ * Chaque classe a sa propre limite adaptative (AdaptiveConcurrencyLimiter) : des recherches LIKE
+ * coûteuses qui saturent le pool HikariCP font baisser la limite des recherches seulement,
+ * getBookById et les pages web gardent leur capacité. Au-delà de la limite, la requête est refusée
+ * avant d'atteindre le contrôleur : ServiceOverloadedException (503 + Retry-After), sans attendre
+ * une connexion.
+ *
+ * Seules les vraies erreurs serveur diminuent la limite : un 503 (bulkhead, index en construction,
+ * file d'écriture pleine) est déjà un refus de charge, un 504 une échéance choisie par le client.
+ * Avec l'écriture différée (bookstore.write-behind.enabled), les créations de livres ne sont pas
+ * limitées : la file bornée de BookWriteBehind les régule et les regroupe en lots.
+ *
+ * Configuration par classe : bookstore.concurrency-limit.{search|point-read|write}.initial-limit,
+ * min-limit, max-limit, latency-threshold ; commune : backoff-ratio, retry-after.
+ * Activé par bookstore.concurrency-limit.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "bookstore.concurrency-limit.enabled", havingValue = "true")
+@Slf4j
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor, WebMvcConfigurer, MeterBinder {
+
+    private static final String PREFIX = "bookstore.concurrency-limit.";
+    private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".PERMIT";
+
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Duration retryAfter;
+    /** Créations régulées par la file de BookWriteBehind plutôt que par la limite WRITE */
+    private final boolean writeBehind;
+
+    public ConcurrencyLimitInterceptor(Environment environment) {
+        double backoffRatio = environment.getProperty(PREFIX + "backoff-ratio", Double.class, 0.9);
+        this.retryAfter = environment.getProperty(PREFIX + "retry-after", Duration.class, Duration.ofSeconds(1));
+        this.writeBehind = environment.getProperty("bookstore.write-behind.enabled", Boolean.class, false);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = PREFIX + endpointClass.key() + ".";
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(endpointClass.key(),
+                    environment.getRequiredProperty(prefix + "initial-limit", Integer.class),
+                    environment.getRequiredProperty(prefix + "min-limit", Integer.class),
+                    environment.getRequiredProperty(prefix + "max-limit", Integer.class),
+                    environment.getRequiredProperty(prefix + "latency-threshold", Duration.class),
+                    backoffRatio);
+            limiters.put(endpointClass, limiter);
+            log.info("Limite de concurrence {}: {} (entre {} et {}), seuil de latence {}", limiter.getName(),
+                     limiter.getLimit(), limiter.getMinLimit(), limiter.getMaxLimit(), limiter.getLatencyThreshold());
+        }
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Reprise d'une requête asynchrone : le permis pris au premier passage est toujours tenu
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        EndpointClass endpointClass = EndpointClass.of(request);
+        if (endpointClass == null || (writeBehind && EndpointClass.isBookCreation(request))) {
+            return true;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiters.get(endpointClass);
+        long start = System.nanoTime();
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            throw new ServiceOverloadedException("Trop de requêtes simultanées (" + limiter.getName()
+                    + ", limite actuelle " + limiter.getLimit() + ")", retryAfter);
+        }
+        request.setAttribute(PERMIT, new Permit(limiter, start, inFlight));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.limiter().release(permit.startNanos(), permit.inFlightAtStart(), isServerFault(response, ex));
+        }
+    }
+
+    /**
+     * Erreur serveur réelle : exception non traitée ou 5xx, hors 503 (refus de charge en aval :
+     * bulkhead, index en construction, file d'écriture) et 504 (échéance choisie par le client) ;
+     * pour ces deux statuts, seule la latence mesurée compte
+     */
+    private static boolean isServerFault(HttpServletResponse response, Exception ex) {
+        if (ex instanceof ServiceOverloadedException) {
+            return false;
+        }
+        if (ex != null) {
+            return true;
+        }
+        int status = response.getStatus();
+        return status >= 500 && status != 503 && status != 504;
+    }
+
+    public Collection<AdaptiveConcurrencyLimiter> limiters() {
+        return limiters.values();
+    }
+
+    /**
+     * Permis tenu par une requête acceptée (attribut de la requête jusqu'à afterCompletion)
+     */
+    private record Permit(AdaptiveConcurrencyLimiter limiter, long startNanos, int inFlightAtStart) {
+    }
+
+    /**
+     * bookstore.concurrency.limit / in-flight / rejected / dropped, tag class
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (AdaptiveConcurrencyLimiter limiter : limiters.values()) {
+            Gauge.builder("bookstore.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Limite de concurrence adaptative actuelle")
+                    .tag("class", limiter.getName())
+                    .register(registry);
+            Gauge.builder("bookstore.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requêtes en cours")
+                    .tag("class", limiter.getName())
+                    .register(registry);
+            FunctionCounter.builder("bookstore.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                    .description("Requêtes refusées (503), limite atteinte")
+                    .tag("class", limiter.getName())
+                    .register(registry);
+            FunctionCounter.builder("bookstore.concurrency.dropped", limiter, AdaptiveConcurrencyLimiter::getDropped)
+                    .description("Requêtes acceptées terminées en erreur serveur (diminution de la limite)")
+                    .tag("class", limiter.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package bf.isge.gsn.resilience;
+
+import bf.isge.gsn.deadline.RequestDeadline;
+import bf.isge.gsn.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cloison (bulkhead) à sémaphore devant l'accès à la base
+ *
+ * Borne le nombre d'accès simultanés à la base : avec des threads virtuels, des milliers de requêtes
+ * peuvent sinon attendre en même temps une connexion HikariCP. Seul le code qui prend une connexion
+ * prend un permis :
+ * - méthode de service qui ouvre une transaction (REQUIRED, REQUIRES_NEW, NESTED, MANDATORY)
+ * - appel à un dépôt Spring Data hors de toute transaction (chargement d'une recherche SUPPORTS,
+ *   composants hors du package service), le temps de sa propre transaction
+ * Une lecture servie par un cache ou un index en mémoire, ou une recherche qui attend le résultat
+ * d'une recherche identique en cours, ne prend donc aucun permis. Les exports en flux (@BulkheadExempt)
+ * n'en prennent pas non plus.
+ *
+ * - le permis est pris avant la transaction (ordre prioritaire sur @Transactional) :
+ *   un thread n'attend jamais un permis en tenant déjà une connexion
+ * - un appel imbriqué sur le même thread réutilise le permis de l'appel englobant
+ * - attente bornée (file équitable) ; au-delà, ServiceOverloadedException (503 + Retry-After),
+ *   ou DeadlineExceededException si l'échéance de la requête arrive avant
+ *
+ * Activée par bookstore.bulkhead.enabled (profil virtual-threads).
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "bookstore.bulkhead.enabled", havingValue = "true")
+@Slf4j
+public class DatabaseBulkhead implements MeterBinder {
+
+    private final Semaphore permits;
+    private final int maxConcurrentCalls;
+    private final Duration maxWait;
+    private final TransactionAttributeSource transactionAttributeSource;
+    /** TRUE : permis pris par un appel englobant ; FALSE : export exempté en cours */
+    private final ThreadLocal<Boolean> holdsPermit = new ThreadLocal<>();
+    private final Map<Method, Boolean> serviceMethodsTakingPermit = new ConcurrentHashMap<>();
+    private Counter rejected;
+
+    public DatabaseBulkhead(@Value("${bookstore.bulkhead.max-concurrent-calls}") int maxConcurrentCalls,
+                            @Value("${bookstore.bulkhead.max-wait:1s}") Duration maxWait,
+                            TransactionAttributeSource transactionAttributeSource) {
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.transactionAttributeSource = transactionAttributeSource;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWait = maxWait;
+        log.info("Bulkhead base de données: {} appel(s) simultané(s), attente max {}", maxConcurrentCalls, maxWait);
+    }
+
+    @Around("execution(public * bf.isge.gsn.service..*(..))")
+    public Object limitService(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (holdsPermit.get() != null) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        if (method.isAnnotationPresent(BulkheadExempt.class)) {
+            holdsPermit.set(Boolean.FALSE);
+            try {
+                return joinPoint.proceed();
+            } finally {
+                holdsPermit.remove();
+            }
+        }
+        Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+        if (!serviceMethodsTakingPermit.computeIfAbsent(method, m -> opensTransaction(m, targetClass))) {
+            return joinPoint.proceed();
+        }
+        return withPermit(joinPoint);
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object limitRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Dans une transaction déjà ouverte (TransactionTemplate...), la connexion est déjà prise
+        if (holdsPermit.get() != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        return withPermit(joinPoint);
+    }
+
+    private Object withPermit(ProceedingJoinPoint joinPoint) throws Throwable {
+        acquire();
+        holdsPermit.set(Boolean.TRUE);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            holdsPermit.remove();
+            permits.release();
+        }
+    }
+
+    /**
+     * Vrai si la méthode démarre (ou exige) une transaction, donc prend une connexion ;
+     * SUPPORTS, NOT_SUPPORTED, NEVER ou sans @Transactional : seuls ses appels aux dépôts en prennent
+     */
+    private boolean opensTransaction(Method method, Class<?> targetClass) {
+        TransactionAttribute attribute = transactionAttributeSource.getTransactionAttribute(method, targetClass);
+        if (attribute == null) {
+            return false;
+        }
+        int propagation = attribute.getPropagationBehavior();
+        return propagation != TransactionDefinition.PROPAGATION_SUPPORTS
+                && propagation != TransactionDefinition.PROPAGATION_NOT_SUPPORTED
+                && propagation != TransactionDefinition.PROPAGATION_NEVER;
+    }
+
+    private void acquire() {
+        RequestDeadline.check("l'accès à la base");
+        Duration wait = RequestDeadline.cap(maxWait);
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(wait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Attente d'accès à la base interrompue", maxWait);
+        }
+        if (!acquired) {
+            if (wait.compareTo(maxWait) < 0) {
+                RequestDeadline.check("l'accès à la base");
+            }
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw new ServiceOverloadedException(
+                    "Trop de requêtes simultanées vers la base (" + maxConcurrentCalls + " au maximum)", maxWait);
+        }
+    }
+
+    /**
+     * bookstore.bulkhead.active / waiting / rejected
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bookstore.bulkhead.active", permits, p -> maxConcurrentCalls - p.availablePermits())
+                .description("Appels en cours vers la base")
+                .register(registry);
+        Gauge.builder("bookstore.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .description("Appels en attente d'un permis")
+                .register(registry);
+        rejected = Counter.builder("bookstore.bulkhead.rejected")
+                .description("Appels refusés après l'attente maximale")
+                .register(registry);
+    }
+}
@@ -0,0 +1,86 @@
+package bf.isge.gsn.resilience;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.regex.Pattern;
+
+/**
+ * Classes d'endpoints limitées séparément (ConcurrencyLimitInterceptor)
+ *
+ * - SEARCH : recherches /api/books/search et /api/books/search/*, liste web /books?keyword=
+ * - POINT_READ : lecture d'un livre (/api/books/{id}, /books/{id}, /books/edit/{id})
+ * - WRITE : écritures unitaires (/api/books, /books/save, /books/delete/{id})
+ *
+ * Les autres requêtes (listes, exports, imports et opérations de masse par tranches,
+ * pages statiques, supervision) ne sont pas limitées.
+ */
+public enum EndpointClass {
+
+    SEARCH("search"),
+    POINT_READ("point-read"),
+    WRITE("write");
+
+    private static final Pattern API_BOOK = Pattern.compile("/api/books/\\d+");
+    private static final Pattern WEB_BOOK = Pattern.compile("/books/(edit/)?\\d+");
+
+    /** Nom dans la configuration (bookstore.concurrency-limit.{key}.*) et les métriques */
+    private final String key;
+
+    EndpointClass(String key) {
+        this.key = key;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Création d'un livre (POST /api/books, formulaire /books/save sans identifiant),
+     * traitée par BookWriteBehind quand l'écriture différée est activée
+     */
+    public static boolean isBookCreation(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/api/books")) {
+            return true;
+        }
+        if (path.equals("/books/save")) {
+            String id = request.getParameter("id");
+            return id == null || id.isBlank();
+        }
+        return false;
+    }
+
+    /**
+     * @return la classe de la requête, null si elle n'est pas limitée
+     */
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        if (path.startsWith("/api/books")) {
+            if (path.startsWith("/api/books/batch") || path.startsWith("/api/books/bulk/")) {
+                return null;
+            }
+            if (!read) {
+                return WRITE;
+            }
+            if (path.equals("/api/books/search") || path.startsWith("/api/books/search/")) {
+                return SEARCH;
+            }
+            return API_BOOK.matcher(path).matches() ? POINT_READ : null;
+        }
+        if (path.startsWith("/books")) {
+            if (path.equals("/books/save") || path.startsWith("/books/delete/")) {
+                return WRITE;
+            }
+            if (path.equals("/books")) {
+                String keyword = request.getParameter("keyword");
+                return keyword != null && !keyword.isBlank() ? SEARCH : null;
+            }
+            return read && WEB_BOOK.matcher(path).matches() ? POINT_READ : null;
+        }
+        return null;
+    }
+}
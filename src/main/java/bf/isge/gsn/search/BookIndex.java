@@ -0,0 +1,38 @@
+package bf.isge.gsn.search;
+
+import bf.isge.gsn.entity.Book;
+
+/**
+ * Index en mémoire alimenté à partir de la table books
+ *
+ * Reconstruit au démarrage par BookIndexMaintainer puis maintenu
+ * à chaque écriture validée (BookChangedEvent).
+ * Les implémentations doivent être thread-safe.
+ */
+public interface BookIndex {
+
+    /**
+     * Vide l'index avant une reconstruction complète
+     */
+    void clear();
+
+    /**
+     * Ajoute ou remplace un livre dans l'index
+     */
+    void index(Book book);
+
+    /**
+     * Retire un livre de l'index (sans effet s'il est absent)
+     */
+    void remove(Long id);
+
+    /**
+     * Marque l'index comme prêt après la reconstruction initiale
+     */
+    void markReady();
+
+    /**
+     * Tant que l'index n'est pas prêt, les recherches doivent passer par la base
+     */
+    boolean isReady();
+}
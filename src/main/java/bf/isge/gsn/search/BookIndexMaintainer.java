@@ -0,0 +1,172 @@
+package bf.isge.gsn.search;
+
+import bf.isge.gsn.config.DeferredInitialization;
+import bf.isge.gsn.datasource.DataSourceRouting;
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.event.BookChangedEvent;
+import bf.isge.gsn.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintient l'ensemble des BookIndex en mémoire
+ *
+ * - Au démarrage : reconstruction complète à partir de la table books (base primaire),
+ *   lue par tranches (pagination par clé sur l'id) pour borner la mémoire
+ * - Ensuite : application de chaque BookChangedEvent après le commit
+ *
+ * Pendant une reconstruction, les écritures validées sont mises de côté puis rejouées dans l'ordre
+ * une fois toutes les tranches chargées : une ligne lue avant une modification ou une suppression
+ * ne peut pas écraser l'état plus récent.
+ *
+ * Les événements AFTER_COMMIT de deux transactions sur un même livre peuvent arriver dans le désordre :
+ * la dernière version appliquée est gardée par livre (suppression : définitive, les id ne sont jamais
+ * réutilisés), un état plus ancien est ignoré, comme FullTextIndex le fait avec la date de modification.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BookIndexMaintainer {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final List<BookIndex> indexes;
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final DeferredInitialization deferredInitialization;
+
+    private final Object pendingLock = new Object();
+    /** Écritures validées pendant la reconstruction en cours, null hors reconstruction (protégé par pendingLock) */
+    private List<BookChangedEvent> pendingEvents;
+
+    /** Version appliquée aux index par livre (DELETED après suppression), protégé par appliedLock */
+    private final Map<Long, Long> appliedVersions = new HashMap<>();
+    private final Object appliedLock = new Object();
+
+    private static final long DELETED = Long.MAX_VALUE;
+
+    /**
+     * Reconstruit tous les index une fois l'application démarrée (en arrière-plan en mode startup)
+     * Jusqu'à la fin de la reconstruction, les recherches passent par la base
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        deferredInitialization.run("book-index", this::rebuild);
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (pendingLock) {
+            pendingEvents = new ArrayList<>();
+        }
+        long total = 0L;
+        int replayed = 0;
+        boolean loaded = false;
+        try {
+            synchronized (appliedLock) {
+                appliedVersions.clear();
+                indexes.forEach(BookIndex::clear);
+            }
+            total = load();
+            loaded = true;
+        } finally {
+            synchronized (pendingLock) {
+                // En cas d'échec, les index restent non prêts (recherches en base) jusqu'à la prochaine reconstruction
+                if (loaded) {
+                    pendingEvents.forEach(this::apply);
+                    replayed = pendingEvents.size();
+                }
+                pendingEvents = null;
+            }
+        }
+        indexes.forEach(BookIndex::markReady);
+        log.info("Index en mémoire reconstruits: {} livre(s), {} écriture(s) rejouée(s) en {} ms",
+                 total, replayed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Charge toute la table books dans les index, par tranches
+     * @return le nombre de livres chargés
+     */
+    private long load() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        long lastId = 0L;
+        long total = 0L;
+        List<Book> chunk;
+        do {
+            long after = lastId;
+            chunk = DataSourceRouting.onPrimary(() -> readOnly.execute(status ->
+                    bookRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(REBUILD_CHUNK_SIZE))));
+            synchronized (appliedLock) {
+                for (Book book : chunk) {
+                    if (isNewer(book.getId(), book.getVersion())) {
+                        indexes.forEach(index -> index.index(book));
+                    }
+                    lastId = book.getId();
+                }
+            }
+            total += chunk.size();
+        } while (chunk.size() == REBUILD_CHUNK_SIZE);
+        return total;
+    }
+
+    /**
+     * Applique une écriture validée à tous les index (différée si une reconstruction est en cours)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        synchronized (pendingLock) {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+                return;
+            }
+        }
+        apply(event);
+    }
+
+    private void apply(BookChangedEvent event) {
+        synchronized (appliedLock) {
+            if (event.getType() == BookChangedEvent.Type.DELETED) {
+                appliedVersions.put(event.getBookId(), DELETED);
+                indexes.forEach(index -> index.remove(event.getBookId()));
+            } else if (isNewer(event.getBookId(), event.getCurrent().getVersion())) {
+                indexes.forEach(index -> index.index(event.getCurrent()));
+            } else {
+                log.debug("État périmé du livre {} ignoré (version {})", event.getBookId(), event.getCurrent().getVersion());
+            }
+        }
+    }
+
+    /**
+     * Vrai (et version enregistrée) si l'état est plus récent que celui déjà appliqué ; appelé sous appliedLock
+     * Version inconnue : appliqué sans contrôle
+     */
+    private boolean isNewer(Long id, Long version) {
+        Long applied = appliedVersions.get(id);
+        if (applied != null && applied == DELETED) {
+            return false;
+        }
+        if (version == null) {
+            return true;
+        }
+        if (applied != null && applied >= version) {
+            return false;
+        }
+        appliedVersions.put(id, version);
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package bf.isge.gsn.search;
+
+import bf.isge.gsn.dto.CatalogStats;
+import bf.isge.gsn.entity.Book;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Statistiques du catalogue maintenues en mémoire (nombre, prix min/max/moyen, livres par auteur)
+ *
+ * Alimentées comme les autres BookIndex : reconstruction au démarrage puis chaque écriture validée.
+ * Chaque livre indexé est mémorisé (auteur, prix) pour retirer son ancienne contribution
+ * lors d'une modification ou d'une suppression ; les prix sont comptés dans une TreeMap
+ * pour que min et max restent exacts après suppression.
+ *
+ * La lecture renvoie un instantané recalculé seulement après une écriture : O(1) entre deux écritures.
+ * Contrôlées périodiquement par CatalogStatisticsReconciler.
+ */
+@Component
+public class CatalogStatistics implements BookIndex {
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeMap<BigDecimal, Integer> prices = new TreeMap<>();
+    private final Map<String, Long> booksByAuteur = new HashMap<>();
+    private BigDecimal total = BigDecimal.ZERO;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    /** Dernier instantané calculé, null après une écriture */
+    private volatile CatalogStats snapshot;
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            entries.clear();
+            prices.clear();
+            booksByAuteur.clear();
+            total = BigDecimal.ZERO;
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = new Entry(book.getAuteur(), book.getPrix());
+            Entry previous = entries.put(book.getId(), entry);
+            if (previous != null) {
+                subtract(previous);
+            }
+            add(entry);
+            snapshot = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                subtract(previous);
+                snapshot = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Nombre de livres
+     */
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Instantané des statistiques (partagé entre les appelants, non modifiable)
+     */
+    public CatalogStats snapshot() {
+        CatalogStats current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // Verrou d'écriture : aucune écriture ne peut invalider l'instantané pendant son calcul
+        lock.writeLock().lock();
+        try {
+            if (snapshot == null) {
+                snapshot = CatalogStats.of(entries.size(),
+                        prices.isEmpty() ? null : prices.firstKey(),
+                        prices.isEmpty() ? null : prices.lastKey(),
+                        total, booksByAuteur);
+            }
+            return snapshot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Entry entry) {
+        booksByAuteur.merge(entry.auteur(), 1L, Long::sum);
+        if (entry.prix() != null) {
+            prices.merge(entry.prix(), 1, Integer::sum);
+            total = total.add(entry.prix());
+        }
+    }
+
+    private void subtract(Entry entry) {
+        booksByAuteur.computeIfPresent(entry.auteur(), (auteur, count) -> count > 1 ? count - 1 : null);
+        if (entry.prix() != null) {
+            prices.computeIfPresent(entry.prix(), (prix, count) -> count > 1 ? count - 1 : null);
+            total = total.subtract(entry.prix());
+        }
+    }
+
+    /**
+     * Contribution d'un livre aux statistiques
+     */
+    private record Entry(String auteur, BigDecimal prix) {
+    }
+}
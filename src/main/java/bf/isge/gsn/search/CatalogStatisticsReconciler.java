@@ -0,0 +1,90 @@
+package bf.isge.gsn.search;
+
+import bf.isge.gsn.cache.BookCache;
+import bf.isge.gsn.cache.CatalogVersion;
+import bf.isge.gsn.cache.SearchResultCache;
+import bf.isge.gsn.datasource.DataSourceRouting;
+import bf.isge.gsn.dto.CatalogStats;
+import bf.isge.gsn.repository.BookRepository;
+import bf.isge.gsn.repository.BookRepository.AuteurCount;
+import bf.isge.gsn.repository.BookRepository.CatalogTotals;
+import bf.isge.gsn.search.fulltext.FullTextIndexMaintainer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Contrôle périodique des statistiques en mémoire contre la base
+ *
+ * Un écart ne peut venir que d'une écriture hors application (console SQL, script...) :
+ * tous les index en mémoire sont alors reconstruits, l'index plein texte rattrapé, les caches
+ * des livres et des recherches vidés.
+ * Le contrôle est abandonné si une écriture a été validée pendant les requêtes d'agrégat.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogStatisticsReconciler {
+
+    private final CatalogStatistics catalogStatistics;
+    private final BookRepository bookRepository;
+    private final BookIndexMaintainer bookIndexMaintainer;
+    private final FullTextIndexMaintainer fullTextIndexMaintainer;
+    private final BookCache bookCache;
+    private final SearchResultCache searchResultCache;
+    private final CatalogVersion catalogVersion;
+
+    @Scheduled(initialDelayString = "${bookstore.stats.reconcile-interval:10m}",
+               fixedDelayString = "${bookstore.stats.reconcile-interval:10m}")
+    public void reconcile() {
+        if (catalogStatistics.isReady()) {
+            // Comparaison avec la primaire : une réplique en retard signalerait un faux écart
+            DataSourceRouting.onPrimary(this::compareWithDatabase);
+        }
+    }
+
+    private void compareWithDatabase() {
+        long generation = catalogVersion.generation();
+        CatalogTotals totals = bookRepository.summarizeCatalog();
+        Map<String, Long> byAuteur = bookRepository.countByAuteur().stream()
+                .collect(Collectors.toMap(AuteurCount::getAuteur, AuteurCount::getCount));
+        CatalogStats memory = catalogStatistics.snapshot();
+        if (catalogVersion.generation() != generation) {
+            log.debug("Contrôle des statistiques reporté: catalogue modifié pendant le contrôle");
+            return;
+        }
+
+        CatalogStats database = CatalogStats.of(totals.getCount(), totals.getMin(), totals.getMax(), totals.getTotal(), byAuteur);
+        if (matches(memory, database)) {
+            log.debug("Statistiques du catalogue à jour ({} livre(s))", memory.getCount());
+            return;
+        }
+        log.warn("Statistiques en mémoire désynchronisées (mémoire: {} livre(s), base: {}), reconstruction des index",
+                 memory.getCount(), database.getCount());
+        bookIndexMaintainer.rebuild();
+        fullTextIndexMaintainer.reconcile();
+        bookCache.clear();
+        searchResultCache.clear();
+    }
+
+    private static boolean matches(CatalogStats memory, CatalogStats database) {
+        return memory.getCount() == database.getCount()
+                && sameAmount(memory.getMinPrix(), database.getMinPrix())
+                && sameAmount(memory.getMaxPrix(), database.getMaxPrix())
+                && sameAmount(memory.getTotalPrix(), database.getTotalPrix())
+                && memory.getBooksByAuteur().equals(database.getBooksByAuteur());
+    }
+
+    /**
+     * Comparaison numérique : l'échelle peut différer entre la base et la mémoire
+     */
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null || b == null ? Objects.equals(a, b) : a.compareTo(b) == 0;
+    }
+}
@@ -0,0 +1,343 @@
+package bf.isge.gsn.search;
+
+import bf.isge.gsn.deadline.RequestDeadline;
+import bf.isge.gsn.entity.Book;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index de recherche approchée (tolérante aux fautes de frappe) sur les mots des titres et auteurs
+ *
+ * - les titres et auteurs sont découpés en mots normalisés par TextNormalizer ("Éléphant" → "elephant")
+ * - les mots distincts forment un trie ; chaque fin de mot porte les livres qui le contiennent
+ * - un mot recherché est évalué comme un automate de Levenshtein le long du trie : chaque arête
+ *   calcule une ligne de la matrice de distance, une branche est abandonnée dès que toute la ligne
+ *   dépasse le nombre de fautes toléré (seul le voisinage du mot est visité, pas le vocabulaire)
+ * - une recherche tolère 0 faute pour un mot de 1-2 lettres, 1 jusqu'à 5 lettres, 2 au-delà ;
+ *   tous les mots de la requête doivent être trouvés, le score d'un livre est la somme des
+ *   distances de chaque mot
+ *
+ * Chaque recherche est bornée par bookstore.search.fuzzy.time-budget : au-delà, seuls les livres
+ * déjà trouvés pour tous les mots sont renvoyés (aucun si le budget s'épuise avant le dernier mot),
+ * et les résultats sont marqués incomplets.
+ */
+@Component
+public class FuzzyIndex implements BookIndex {
+
+    /** Nombre maximal de mots dans une requête */
+    public static final int MAX_QUERY_TOKENS = 8;
+
+    /** Fréquence de contrôle de l'échéance pendant le parcours du trie */
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    private final Duration timeBudget;
+    private final Map<Long, Set<String>> tokensById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root = new Node();
+    private volatile boolean ready;
+
+    public FuzzyIndex(@Value("${bookstore.search.fuzzy.time-budget:50ms}") Duration timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            tokensById.clear();
+            root = new Node();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Book book) {
+        Set<String> tokens = TextNormalizer.tokens(book.getTitre());
+        tokens.addAll(TextNormalizer.tokens(book.getAuteur()));
+        lock.writeLock().lock();
+        try {
+            unlink(book.getId());
+            for (String token : tokens) {
+                Node node = root;
+                for (int i = 0; i < token.length(); i++) {
+                    node = node.childOrCreate(token.charAt(i));
+                }
+                if (node.ids == null) {
+                    node.ids = new HashSet<>();
+                }
+                node.ids.add(book.getId());
+            }
+            tokensById.put(book.getId(), tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            unlink(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Livres dont les mots approchent tous les mots de la requête
+     * @param query mots recherchés (casse et accents ignorés)
+     * @param limit nombre maximal de résultats
+     * @return identifiants classés par distance croissante puis par identifiant
+     * @throws IllegalArgumentException si la requête contient plus de MAX_QUERY_TOKENS mots
+     */
+    public Result search(String query, int limit) {
+        Set<String> terms = TextNormalizer.tokens(query);
+        if (terms.size() > MAX_QUERY_TOKENS) {
+            throw new IllegalArgumentException("La recherche approchée accepte au plus " + MAX_QUERY_TOKENS + " mots");
+        }
+        if (terms.isEmpty()) {
+            return new Result(List.of(), true);
+        }
+        // Budget raccourci par l'échéance de la requête (résultats partiels)
+        long deadline = System.nanoTime() + RequestDeadline.cap(timeBudget).toNanos();
+
+        lock.readLock().lock();
+        try {
+            // Le mot le plus long est le plus sélectif : il restreint les candidats des suivants
+            List<String> ordered = new ArrayList<>(terms);
+            ordered.sort(Comparator.comparingInt(String::length).reversed());
+
+            Map<Long, Integer> scores = null;
+            boolean complete = true;
+            for (int i = 0; i < ordered.size(); i++) {
+                String term = ordered.get(i);
+                Search search = new Search(term.toCharArray(), maxDistance(term), scores, deadline);
+                complete = search.run(root);
+                if (scores != null) {
+                    Map<Long, Integer> previous = scores;
+                    search.best.replaceAll((id, distance) -> distance + previous.get(id));
+                }
+                scores = search.best;
+                if (!complete) {
+                    // Seuls les livres trouvés pour le dernier mot ont satisfait tous les mots
+                    if (i < ordered.size() - 1) {
+                        scores = Map.of();
+                    }
+                    break;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+
+            List<Match> matches = scores.entrySet().stream()
+                    .map(e -> new Match(e.getKey(), e.getValue()))
+                    .sorted(Comparator.comparingInt(Match::distance).thenComparing(Match::id))
+                    .limit(limit)
+                    .toList();
+            return new Result(matches, complete);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retire le livre des mots qu'il portait et élague les branches devenues vides
+     */
+    private void unlink(Long id) {
+        Set<String> previous = tokensById.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous) {
+            Node[] path = new Node[token.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < token.length(); i++) {
+                path[i + 1] = path[i].child(token.charAt(i));
+            }
+            Node last = path[token.length()];
+            last.ids.remove(id);
+            if (!last.ids.isEmpty()) {
+                continue;
+            }
+            last.ids = null;
+            for (int i = token.length(); i > 0 && path[i].isEmpty(); i--) {
+                path[i - 1].removeChild(token.charAt(i - 1));
+            }
+        }
+    }
+
+    /**
+     * Nombre de fautes tolérées selon la longueur du mot
+     */
+    private static int maxDistance(String term) {
+        if (term.length() <= 2) {
+            return 0;
+        }
+        return term.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Livre trouvé et somme des distances de ses mots aux mots de la requête
+     */
+    public record Match(Long id, int distance) {
+    }
+
+    /**
+     * @param complete false si le budget de temps a interrompu la recherche
+     */
+    public record Result(List<Match> matches, boolean complete) {
+    }
+
+    /**
+     * Parcours du trie pour un mot : meilleure distance par livre
+     */
+    private static final class Search {
+
+        private final char[] term;
+        private final int maxDistance;
+        private final Map<Long, Integer> candidates;
+        private final long deadline;
+        private final Map<Long, Integer> best = new HashMap<>();
+        private int visited;
+
+        /**
+         * @param candidates livres retenus par les mots précédents (null pour le premier mot)
+         */
+        private Search(char[] term, int maxDistance, Map<Long, Integer> candidates, long deadline) {
+            this.term = term;
+            this.maxDistance = maxDistance;
+            this.candidates = candidates;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return false si l'échéance a interrompu le parcours
+         */
+        boolean run(Node root) {
+            int[] first = new int[term.length + 1];
+            for (int j = 0; j <= term.length; j++) {
+                first[j] = j;
+            }
+            for (int i = 0; i < root.size; i++) {
+                if (!visit(root.children[i], root.keys[i], first)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Ligne suivante de la matrice de Levenshtein pour le caractère c de l'arête
+         */
+        private boolean visit(Node node, char c, int[] previous) {
+            if (++visited % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                return false;
+            }
+            int[] row = new int[term.length + 1];
+            row[0] = previous[0] + 1;
+            int min = row[0];
+            for (int j = 1; j <= term.length; j++) {
+                int substitution = previous[j - 1] + (term[j - 1] == c ? 0 : 1);
+                row[j] = Math.min(substitution, Math.min(previous[j], row[j - 1]) + 1);
+                min = Math.min(min, row[j]);
+            }
+
+            int distance = row[term.length];
+            if (distance <= maxDistance && node.ids != null) {
+                for (Long id : node.ids) {
+                    if (candidates == null || candidates.containsKey(id)) {
+                        best.merge(id, distance, Math::min);
+                    }
+                }
+            }
+            if (min > maxDistance) {
+                return true;
+            }
+            for (int i = 0; i < node.size; i++) {
+                if (!visit(node.children[i], node.keys[i], row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Nœud du trie : enfants triés par caractère (tableaux compacts plutôt qu'une Map par nœud)
+     */
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        /** Livres portant le mot qui se termine ici (null si aucun) */
+        private Set<Long> ids;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(children, at, children, at + 1, size - at);
+            Node child = new Node();
+            keys[at] = c;
+            children[at] = child;
+            size++;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, 0, size, c);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(children, i + 1, children, i, size - i - 1);
+            children[--size] = null;
+        }
+
+        boolean isEmpty() {
+            return size == 0 && ids == null;
+        }
+    }
+}
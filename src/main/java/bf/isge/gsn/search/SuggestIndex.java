@@ -0,0 +1,483 @@
+package bf.isge.gsn.search;
+
+import bf.isge.gsn.dto.BookSuggestion;
+import bf.isge.gsn.entity.Book;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index des suggestions de saisie (autocomplétion) sur les titres et auteurs
+ *
+ * - chaque titre et chaque auteur distinct (après TextNormalizer) est une suggestion, pondérée par
+ *   son nombre de livres ; elle est indexée à partir de chacun de ses mots ("zon" → "Norbert ZONGO")
+ * - un trie compressé (radix) par champ ; chaque nœud garde en cache les MAX_SUGGESTIONS meilleures
+ *   suggestions de son sous-arbre : une requête descend le préfixe puis lit ce cache
+ * - une écriture modifie le trie et n'invalide que les caches du chemin concerné ; ils sont
+ *   recalculés à la lecture suivante à partir des caches des enfants
+ *
+ * Les petits sous-arbres (MAX_SUGGESTIONS clés au plus) sont parcourus directement, sans cache.
+ */
+@Component
+public class SuggestIndex implements BookIndex {
+
+    /** Nombre maximal de suggestions renvoyées (et gardées en cache par nœud) */
+    public static final int MAX_SUGGESTIONS = 10;
+
+    /** Les mots plus courts (l', d', à...) ne servent pas de point d'entrée, sauf en début de texte */
+    private static final int MIN_WORD_LENGTH = 2;
+
+    /** Plus de livres d'abord, puis ordre alphabétique */
+    private static final Comparator<Term> RANKING = SuggestIndex::compare;
+
+    private final Trie titres = new Trie("titre");
+    private final Trie auteurs = new Trie("auteur");
+    private final Map<Long, Term[]> termsById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            titres.clear();
+            auteurs.clear();
+            termsById.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            // Ajout avant retrait : un titre inchangé ne quitte pas le trie
+            Term[] current = {titres.attach(book.getTitre()), auteurs.attach(book.getAuteur())};
+            Term[] previous = termsById.put(book.getId(), current);
+            if (previous != null) {
+                titres.detach(previous[0]);
+                auteurs.detach(previous[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            Term[] previous = termsById.remove(id);
+            if (previous != null) {
+                titres.detach(previous[0]);
+                auteurs.detach(previous[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Titres et/ou auteurs dont un mot commence par le préfixe (casse et accents ignorés)
+     * @param prefix début de saisie
+     * @param includeTitres inclure les titres
+     * @param includeAuteurs inclure les auteurs
+     * @param limit nombre maximal de suggestions (au plus MAX_SUGGESTIONS)
+     * @return suggestions, les plus fréquentes d'abord
+     */
+    public List<BookSuggestion> suggest(String prefix, boolean includeTitres, boolean includeAuteurs, int limit) {
+        String normalized = TextNormalizer.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Term> terms = new ArrayList<>(2 * MAX_SUGGESTIONS);
+            if (includeTitres) {
+                Collections.addAll(terms, titres.top(normalized));
+            }
+            if (includeAuteurs) {
+                Collections.addAll(terms, auteurs.top(normalized));
+            }
+            terms.sort(RANKING);
+            return terms.stream()
+                    .limit(limit)
+                    .map(term -> new BookSuggestion(term.text, term.type, term.books))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int compare(Term a, Term b) {
+        int byBooks = Integer.compare(b.books, a.books);
+        if (byBooks != 0) {
+            return byBooks;
+        }
+        int byText = a.normalized.compareTo(b.normalized);
+        return byText != 0 ? byText : a.type.compareTo(b.type);
+    }
+
+    /**
+     * Titre ou auteur distinct ; books n'est modifié que sous le verrou d'écriture
+     */
+    private static final class Term {
+
+        private final String type;
+        private final String text;
+        private final String normalized;
+        private int books;
+
+        private Term(String type, String text, String normalized) {
+            this.type = type;
+            this.text = text;
+            this.normalized = normalized;
+        }
+
+        /**
+         * Clés d'indexation : le texte à partir de chacun de ses mots
+         */
+        Set<String> keys() {
+            Set<String> keys = new LinkedHashSet<>();
+            for (int start : TextNormalizer.wordStarts(normalized)) {
+                int end = normalized.indexOf(' ', start);
+                int wordLength = (end < 0 ? normalized.length() : end) - start;
+                if (start == 0 || wordLength >= MIN_WORD_LENGTH) {
+                    keys.add(normalized.substring(start));
+                }
+            }
+            return keys;
+        }
+    }
+
+    /**
+     * Trie compressé des suggestions d'un champ
+     */
+    private static final class Trie {
+
+        private final String type;
+        private final Map<String, Term> terms = new HashMap<>();
+        private Node root = new Node("");
+
+        private Trie(String type) {
+            this.type = type;
+        }
+
+        void clear() {
+            terms.clear();
+            root = new Node("");
+        }
+
+        /**
+         * Compte un livre de plus pour ce texte
+         * @return la suggestion, ou null si le texte est vide après normalisation
+         */
+        Term attach(String text) {
+            String normalized = TextNormalizer.normalize(text);
+            if (normalized.isEmpty()) {
+                return null;
+            }
+            Term term = terms.get(normalized);
+            if (term == null) {
+                term = new Term(type, text, normalized);
+                term.books = 1;
+                terms.put(normalized, term);
+                for (String key : term.keys()) {
+                    insert(key, term);
+                }
+            } else {
+                term.books++;
+                term.keys().forEach(this::invalidate);
+            }
+            return term;
+        }
+
+        /**
+         * Compte un livre de moins ; la suggestion quitte le trie avec son dernier livre
+         */
+        void detach(Term term) {
+            if (term == null) {
+                return;
+            }
+            term.books--;
+            if (term.books == 0) {
+                terms.remove(term.normalized);
+                for (String key : term.keys()) {
+                    delete(key, term);
+                }
+            } else {
+                term.keys().forEach(this::invalidate);
+            }
+        }
+
+        /**
+         * Meilleures suggestions sous le préfixe
+         */
+        Term[] top(String prefix) {
+            Node node = root;
+            int position = 0;
+            while (position < prefix.length()) {
+                Node child = node.child(prefix.charAt(position));
+                if (child == null) {
+                    return Node.NO_TERMS;
+                }
+                int common = commonPrefixLength(child.label, prefix, position);
+                if (position + common == prefix.length()) {
+                    // Le préfixe se termine dans l'étiquette : tout le sous-arbre correspond
+                    return top(child);
+                }
+                if (common < child.label.length()) {
+                    return Node.NO_TERMS;
+                }
+                node = child;
+                position += common;
+            }
+            return top(node);
+        }
+
+        private void insert(String key, Term term) {
+            Node node = root;
+            int position = 0;
+            while (true) {
+                node.count++;
+                node.top = null;
+                if (position == key.length()) {
+                    node.terms.add(term);
+                    return;
+                }
+                int index = node.indexOf(key.charAt(position));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(position));
+                    leaf.count = 1;
+                    leaf.terms.add(term);
+                    node.addChild(leaf);
+                    return;
+                }
+                Node child = node.children[index];
+                int common = commonPrefixLength(child.label, key, position);
+                if (common < child.label.length()) {
+                    child = node.split(index, common);
+                }
+                node = child;
+                position += common;
+            }
+        }
+
+        private void delete(String key, Term term) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            for (int position = 0; position < key.length(); position += node.label.length()) {
+                node = node.child(key.charAt(position));
+                path.add(node);
+            }
+            node.terms.remove(term);
+            for (Node visited : path) {
+                visited.count--;
+                visited.top = null;
+            }
+            // Élagage des nœuds vides, fusion d'un nœud intermédiaire avec son unique enfant
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node current = path.get(i);
+                if (!current.terms.isEmpty()) {
+                    break;
+                }
+                if (current.size == 0) {
+                    path.get(i - 1).removeChild(current.label.charAt(0));
+                    continue;
+                }
+                if (current.size == 1) {
+                    current.mergeWithOnlyChild();
+                }
+                break;
+            }
+        }
+
+        /**
+         * Changement de poids sans changement de structure : seuls les caches du chemin sont périmés
+         */
+        private void invalidate(String key) {
+            Node node = root;
+            node.top = null;
+            for (int position = 0; position < key.length(); position += node.label.length()) {
+                node = node.child(key.charAt(position));
+                node.top = null;
+            }
+        }
+
+        /**
+         * Les MAX_SUGGESTIONS meilleures du sous-arbre : une suggestion absente du classement d'un enfant
+         * est précédée d'au moins MAX_SUGGESTIONS autres, les classements des enfants suffisent donc
+         */
+        private static Term[] top(Node node) {
+            Term[] cached = node.top;
+            if (cached != null) {
+                return cached;
+            }
+            Ranking ranking = new Ranking();
+            if (node.count <= MAX_SUGGESTIONS) {
+                collectAll(node, ranking);
+            } else {
+                node.terms.forEach(ranking::offer);
+                for (int i = 0; i < node.size; i++) {
+                    for (Term term : top(node.children[i])) {
+                        ranking.offer(term);
+                    }
+                }
+            }
+            Term[] result = ranking.toArray();
+            if (node.count > MAX_SUGGESTIONS) {
+                node.top = result;
+            }
+            return result;
+        }
+
+        private static void collectAll(Node node, Ranking ranking) {
+            node.terms.forEach(ranking::offer);
+            for (int i = 0; i < node.size; i++) {
+                collectAll(node.children[i], ranking);
+            }
+        }
+
+        private static int commonPrefixLength(String label, String key, int from) {
+            int max = Math.min(label.length(), key.length() - from);
+            int i = 0;
+            while (i < max && label.charAt(i) == key.charAt(from + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Les MAX_SUGGESTIONS meilleures suggestions proposées, triées, sans doublon
+     * (une même suggestion peut apparaître sous plusieurs clés d'un sous-arbre)
+     */
+    private static final class Ranking {
+
+        private final Term[] best = new Term[MAX_SUGGESTIONS];
+        private int size;
+
+        void offer(Term term) {
+            if (size == best.length && compare(term, best[size - 1]) >= 0) {
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                if (best[i] == term) {
+                    return;
+                }
+            }
+            int i = size < best.length ? size++ : best.length - 1;
+            while (i > 0 && compare(term, best[i - 1]) < 0) {
+                best[i] = best[i - 1];
+                i--;
+            }
+            best[i] = term;
+        }
+
+        Term[] toArray() {
+            return Arrays.copyOf(best, size);
+        }
+    }
+
+    /**
+     * Nœud du trie : étiquette de l'arête entrante, enfants triés par premier caractère
+     */
+    private static final class Node {
+
+        private static final Term[] NO_TERMS = new Term[0];
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private char[] firsts = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        /** Suggestions dont une clé se termine ici */
+        private List<Term> terms = new ArrayList<>(1);
+        /** Nombre de couples (clé, suggestion) du sous-arbre */
+        private int count;
+        /** Classement en cache (null : à recalculer) */
+        private volatile Term[] top;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        int indexOf(char c) {
+            return Arrays.binarySearch(firsts, 0, size, c);
+        }
+
+        Node child(char c) {
+            int index = indexOf(c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void addChild(Node child) {
+            int at = -indexOf(child.label.charAt(0)) - 1;
+            if (size == firsts.length) {
+                int capacity = Math.max(2, size * 2);
+                firsts = Arrays.copyOf(firsts, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(firsts, at, firsts, at + 1, size - at);
+            System.arraycopy(children, at, children, at + 1, size - at);
+            firsts[at] = child.label.charAt(0);
+            children[at] = child;
+            size++;
+        }
+
+        void removeChild(char c) {
+            int index = indexOf(c);
+            System.arraycopy(firsts, index + 1, firsts, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+        }
+
+        /**
+         * Coupe l'arête vers l'enfant après common caractères
+         * @return le nœud intermédiaire créé
+         */
+        Node split(int index, int common) {
+            Node child = children[index];
+            Node middle = new Node(child.label.substring(0, common));
+            child.label = child.label.substring(common);
+            middle.addChild(child);
+            middle.count = child.count;
+            children[index] = middle;
+            return middle;
+        }
+
+        void mergeWithOnlyChild() {
+            Node only = children[0];
+            label = label + only.label;
+            firsts = only.firsts;
+            children = only.children;
+            size = only.size;
+            terms = only.terms;
+            top = only.top;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package bf.isge.gsn.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Formes canoniques des titres et auteurs, partagées par les index en mémoire et les colonnes
+ * normalisées de Book (une recherche donne le même résultat par l'index ou par la base)
+ *
+ * - fold : minuscules, sans accents ("Éléphant" → "elephant", "Ça" → "ca"), ponctuation conservée
+ * - normalize : fold + ponctuation et espaces multiples réduits à un seul espace :
+ *   "L'Éléphant  et le Griot" → "l elephant et le griot"
+ * - sortKey : normalize + nombres complétés par des zéros, pour un tri naturel ("Tome 2" avant "Tome 10")
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern NUMBERS = Pattern.compile("\\d+");
+
+    /** Largeur des nombres dans une clé de tri */
+    private static final int SORT_NUMBER_WIDTH = 10;
+
+    /** Longueur maximale d'une clé de tri (taille des colonnes titre_tri et auteur_tri) */
+    public static final int SORT_KEY_LENGTH = 255;
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * @return le texte en minuscules et sans accents (pas plus long que la valeur), vide si la valeur est nulle
+     */
+    public static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Recomposition (NFC) : le texte plié n'est jamais plus long que l'original
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return Normalizer.normalize(stripped, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return le texte normalisé, vide si la valeur est nulle ou sans lettre ni chiffre
+     */
+    public static String normalize(String value) {
+        return SEPARATORS.matcher(fold(value)).replaceAll(" ").strip();
+    }
+
+    /**
+     * Clé de tri alphabétique : casse, accents et ponctuation ignorés, nombres comparés par valeur
+     * Tronquée à SORT_KEY_LENGTH caractères (au-delà, l'ordre est départagé par l'identifiant)
+     */
+    public static String sortKey(String value) {
+        String key = NUMBERS.matcher(normalize(value)).replaceAll(number -> {
+            String digits = number.group();
+            return digits.length() >= SORT_NUMBER_WIDTH ? digits : "0".repeat(SORT_NUMBER_WIDTH - digits.length()) + digits;
+        });
+        return key.length() > SORT_KEY_LENGTH ? key.substring(0, SORT_KEY_LENGTH) : key;
+    }
+
+    /**
+     * Mots distincts du texte normalisé, dans l'ordre d'apparition
+     */
+    public static Set<String> tokens(String value) {
+        String normalized = normalize(value);
+        Set<String> tokens = new LinkedHashSet<>();
+        if (!normalized.isEmpty()) {
+            Collections.addAll(tokens, normalized.split(" "));
+        }
+        return tokens;
+    }
+
+    /**
+     * Positions de début de mot dans un texte normalisé
+     */
+    public static List<Integer> wordStarts(String normalized) {
+        List<Integer> starts = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                starts.add(i);
+            }
+        }
+        return starts;
+    }
+}
@@ -0,0 +1,259 @@
+package bf.isge.gsn.search;
+
+import bf.isge.gsn.entity.Book;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index n-grammes (trigrammes) en mémoire sur les colonnes titre et auteur
+ *
+ * Remplace les requêtes LOWER(col) LIKE '%x%' qui parcourent toute la table :
+ * - chaque valeur (minuscules sans accents, TextNormalizer.fold) est découpée en trigrammes
+ * - une recherche intersecte les listes de postings des trigrammes de la requête
+ * - les candidats sont vérifiés par un contains() pour éliminer les faux positifs
+ *
+ * Les requêtes de moins de 3 caractères ne peuvent pas être filtrées par trigrammes :
+ * elles sont résolues par un parcours des valeurs en mémoire (jamais par la base).
+ */
+@Component
+public class TrigramIndex implements BookIndex {
+
+    private static final int N = 3;
+
+    private final FieldIndex titres = new FieldIndex();
+    private final FieldIndex auteurs = new FieldIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            titres.clear();
+            auteurs.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            titres.put(book.getId(), book.getTitre());
+            auteurs.put(book.getId(), book.getAuteur());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            titres.remove(id);
+            auteurs.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void markReady() {
+        ready = true;
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Identifiants des livres dont le titre contient la chaîne (insensible à la casse)
+     * @return identifiants triés par ordre croissant
+     */
+    public List<Long> searchTitre(String titre) {
+        lock.readLock().lock();
+        try {
+            return sorted(titres.search(normalize(titre)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Identifiants des livres dont l'auteur contient la chaîne (insensible à la casse)
+     * @return identifiants triés par ordre croissant
+     */
+    public List<Long> searchAuteur(String auteur) {
+        lock.readLock().lock();
+        try {
+            return sorted(auteurs.search(normalize(auteur)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Identifiants des livres correspondant à la fois au titre ET à l'auteur
+     * @return identifiants triés par ordre croissant
+     */
+    public List<Long> searchTitreAndAuteur(String titre, String auteur) {
+        lock.readLock().lock();
+        try {
+            Set<Long> byTitre = titres.search(normalize(titre));
+            Set<Long> byAuteur = auteurs.search(normalize(auteur));
+            Set<Long> smaller = byTitre.size() <= byAuteur.size() ? byTitre : byAuteur;
+            Set<Long> larger = smaller == byTitre ? byAuteur : byTitre;
+            Set<Long> result = new HashSet<>();
+            for (Long id : smaller) {
+                if (larger.contains(id)) {
+                    result.add(id);
+                }
+            }
+            return sorted(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Identifiants des livres dont le titre OU l'auteur contient la chaîne (sans doublon)
+     * @return identifiants triés par ordre croissant
+     */
+    public List<Long> searchTitreOrAuteur(String keyword) {
+        lock.readLock().lock();
+        try {
+            String query = normalize(keyword);
+            Set<Long> result = new HashSet<>(titres.search(query));
+            result.addAll(auteurs.search(query));
+            return sorted(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de livres indexés
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return titres.values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String value) {
+        return TextNormalizer.fold(value);
+    }
+
+    private static List<Long> sorted(Set<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        Collections.sort(list);
+        return list;
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= value.length(); i++) {
+            grams.add(value.substring(i, i + N));
+        }
+        return grams;
+    }
+
+    /**
+     * Index d'une colonne : valeurs normalisées par livre et postings par trigramme
+     */
+    private static class FieldIndex {
+
+        private final Map<Long, String> values = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+
+        void clear() {
+            values.clear();
+            postings.clear();
+        }
+
+        void put(Long id, String rawValue) {
+            remove(id);
+            String value = normalize(rawValue);
+            values.put(id, value);
+            for (String gram : trigrams(value)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+            }
+        }
+
+        void remove(Long id) {
+            String previous = values.remove(id);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : trigrams(previous)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        Set<Long> search(String query) {
+            if (query.length() < N) {
+                return scan(query);
+            }
+
+            // Intersection en partant de la liste la plus courte
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : trigrams(query)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> result = new HashSet<>();
+            for (Long id : lists.get(0)) {
+                if (containsAll(lists, id) && values.get(id).contains(query)) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+
+        private Set<Long> scan(String query) {
+            Set<Long> result = new HashSet<>();
+            values.forEach((id, value) -> {
+                if (value.contains(query)) {
+                    result.add(id);
+                }
+            });
+            return result;
+        }
+
+        private static boolean containsAll(List<Set<Long>> lists, Long id) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
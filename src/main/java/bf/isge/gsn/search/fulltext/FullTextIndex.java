@@ -0,0 +1,796 @@
+package bf.isge.gsn.search.fulltext;
+
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.search.TextNormalizer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Index plein texte des titres et auteurs, stocké sur disque en segments immuables
+ *
+ * - les écritures vont dans un tampon en mémoire, écrit en nouveau segment au-delà de
+ *   bookstore.search.fulltext.flush-threshold livres ou au commit suivant
+ * - les segments sont lus via des fichiers mappés en mémoire (hors tas) : seuls le tampon et
+ *   un bit par document (suppressions) restent sur le tas, quelle que soit la taille du catalogue
+ * - une modification supprime l'ancien document (bit de suppression) et indexe le nouveau
+ * - commit() écrit le tampon, les suppressions et le manifeste segments.properties (remplacement
+ *   atomique) : au redémarrage, les segments du manifeste sont rouverts tels quels
+ * - maybeMerge() fusionne les plus petits segments au-delà de bookstore.search.fulltext.merge-factor
+ *   (et réécrit un segment à moitié supprimé) ; la fusion s'écrit hors verrou
+ *
+ * Classement BM25 (k1 = 1.2, b = 0.75) sur le titre (poids 2) et l'auteur (poids 1) ; une requête
+ * renvoie les livres contenant au moins un de ses mots. Un livre n'est jamais remplacé par une
+ * version plus ancienne (date de modification), ce qui rend les relectures de rattrapage sans risque.
+ */
+@Component
+@Slf4j
+public class FullTextIndex implements MeterBinder {
+
+    /** Nombre maximal de mots dans une requête */
+    public static final int MAX_QUERY_TERMS = 16;
+
+    static final String MANIFEST = "segments.properties";
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double TITRE_WEIGHT = 2.0;
+    private static final double AUTEUR_WEIGHT = 1.0;
+
+    private final Path directory;
+    private final int flushThreshold;
+    private final int mergeFactor;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Une seule fusion à la fois (les sources ne peuvent disparaître que par une fusion) */
+    private final Object mergeLock = new Object();
+
+    private List<Segment> segments = List.of();
+    private Map<Long, Doc> buffer = new HashMap<>();
+    private long bufferLengthTitre;
+    private long bufferLengthAuteur;
+    private long nextGeneration;
+    /** Toute écriture validée avant cette date (µs) est reflétée par l'index, avec une marge de rattrapage */
+    private long watermark = Segment.UNKNOWN_MODIFIED;
+    /** Fichiers remplacés, supprimés après le prochain manifeste */
+    private final List<String> obsoleteFiles = new ArrayList<>();
+    private boolean dirty;
+    private volatile boolean open;
+    private volatile boolean ready;
+
+    public FullTextIndex(@Value("${bookstore.search.fulltext.directory:./data/fulltext}") Path directory,
+                         @Value("${bookstore.search.fulltext.flush-threshold:10000}") int flushThreshold,
+                         @Value("${bookstore.search.fulltext.merge-factor:8}") int mergeFactor) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.flushThreshold = flushThreshold;
+        this.mergeFactor = Math.max(2, mergeFactor);
+    }
+
+    /**
+     * Ouvre les segments du dernier manifeste ; un index absent ou illisible repart vide
+     * (les fichiers non référencés, écrits après le dernier commit, sont supprimés)
+     * @return true si un index existant a été rouvert
+     */
+    public boolean open() {
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            boolean reopened = false;
+            Path manifest = directory.resolve(MANIFEST);
+            if (Files.exists(manifest)) {
+                try {
+                    load(manifest);
+                    reopened = true;
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Index plein texte illisible dans {}, reconstruction: {}", directory, e.getMessage());
+                    segments = List.of();
+                    nextGeneration = 0;
+                    watermark = Segment.UNKNOWN_MODIFIED;
+                    Files.delete(manifest);
+                }
+            }
+            deleteUnreferencedFiles();
+            // Un nouvel index est enregistré au premier commit, même vide
+            dirty = !reopened;
+            open = true;
+            return reopened;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ouverture de l'index plein texte impossible: " + directory, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Date jusqu'à laquelle les écritures validées sont reflétées (null si inconnue : index à construire)
+     */
+    public Instant watermark() {
+        lock.readLock().lock();
+        try {
+            return watermark == Segment.UNKNOWN_MODIFIED ? null : Instant.EPOCH.plus(watermark, ChronoUnit.MICROS);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexe (ou réindexe) un livre ; ignoré si une version plus récente est déjà indexée
+     */
+    public void index(Book book) {
+        Doc doc = Doc.of(book);
+        lock.writeLock().lock();
+        try {
+            requireOpen();
+            Long indexed = liveModified(doc.bookId);
+            if (indexed != null && indexed > doc.modified) {
+                return;
+            }
+            deleteLive(doc.bookId);
+            buffer.put(doc.bookId, doc);
+            bufferLengthTitre += doc.lengthTitre;
+            bufferLengthAuteur += doc.lengthAuteur;
+            dirty = true;
+            if (buffer.size() >= flushThreshold) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture de l'index plein texte impossible", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            requireOpen();
+            if (deleteLive(id)) {
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de livres indexés
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            long size = buffer.size();
+            for (Segment segment : segments) {
+                size += segment.liveCount();
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Taille des segments sur disque (octets)
+     */
+    public long sizeOnDisk() {
+        lock.readLock().lock();
+        try {
+            return segments.stream().mapToLong(Segment::sizeInBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Identifiants indexés strictement supérieurs à afterId, par ordre croissant (parcours par tranches)
+     */
+    public List<Long> liveIds(long afterId, int max) {
+        lock.readLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (Long id : buffer.keySet()) {
+                if (id > afterId) {
+                    ids.add(id);
+                }
+            }
+            for (Segment segment : segments) {
+                int taken = 0;
+                for (int doc = segment.firstAfter(afterId); doc < segment.docCount() && taken < max; doc++) {
+                    if (!segment.isDeleted(doc)) {
+                        ids.add(segment.bookId(doc));
+                        taken++;
+                    }
+                }
+            }
+            ids.sort(null);
+            return ids.size() > max ? new ArrayList<>(ids.subList(0, max)) : ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================
+    // Recherche
+    // ========================
+
+    /**
+     * Livres contenant au moins un mot de la requête, classés par score BM25
+     * @param query mots recherchés (casse et accents ignorés)
+     * @param offset rang du premier résultat renvoyé
+     * @param limit nombre maximal de résultats renvoyés
+     * @return la page de résultats (score décroissant puis id croissant) et le nombre total de livres trouvés
+     * @throws IllegalArgumentException si la requête contient plus de MAX_QUERY_TERMS mots
+     */
+    public Result search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(TextNormalizer.tokens(query));
+        if (terms.size() > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("La recherche plein texte accepte au plus " + MAX_QUERY_TERMS + " mots");
+        }
+        if (terms.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            requireOpen();
+            // Statistiques globales : nombre de documents, longueurs moyennes, fréquence documentaire
+            long docCount = buffer.size();
+            long sumTitre = bufferLengthTitre;
+            long sumAuteur = bufferLengthAuteur;
+            long[] docFreqs = new long[terms.size()];
+            for (Segment segment : segments) {
+                docCount += segment.liveCount();
+                sumTitre += segment.sumLengthTitre();
+                sumAuteur += segment.sumLengthAuteur();
+                for (int t = 0; t < terms.size(); t++) {
+                    Segment.Postings postings = segment.postings(terms.get(t));
+                    if (postings != null) {
+                        docFreqs[t] += postings.docFreq();
+                    }
+                }
+            }
+            for (Doc doc : buffer.values()) {
+                for (int t = 0; t < terms.size(); t++) {
+                    if (doc.freqs.containsKey(terms.get(t))) {
+                        docFreqs[t]++;
+                    }
+                }
+            }
+            if (docCount == 0) {
+                return new Result(List.of(), 0);
+            }
+
+            long totalDocs = docCount;
+            for (Segment segment : segments) {
+                totalDocs += segment.deletedCount();
+            }
+            Scorer scorer = new Scorer(totalDocs, docFreqs,
+                    Math.max(1.0, (double) sumTitre / totalDocs), Math.max(1.0, (double) sumAuteur / totalDocs));
+            TopHits top = new TopHits(offset + limit);
+            for (Segment segment : segments) {
+                searchSegment(segment, terms, scorer, top);
+            }
+            for (Doc doc : buffer.values()) {
+                double score = 0;
+                boolean matched = false;
+                for (int t = 0; t < terms.size(); t++) {
+                    int[] freq = doc.freqs.get(terms.get(t));
+                    if (freq != null) {
+                        matched = true;
+                        score += scorer.score(t, freq[0], doc.lengthTitre, freq[1], doc.lengthAuteur);
+                    }
+                }
+                if (matched) {
+                    top.offer(doc.bookId, score);
+                }
+            }
+            return new Result(top.page(offset, limit), top.total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Parcours document par document : les postings des mots avancent ensemble
+     */
+    private static void searchSegment(Segment segment, List<String> terms, Scorer scorer, TopHits top) {
+        Segment.Postings[] cursors = new Segment.Postings[terms.size()];
+        for (int t = 0; t < cursors.length; t++) {
+            cursors[t] = segment.postings(terms.get(t));
+            if (cursors[t] != null) {
+                cursors[t].next();
+            }
+        }
+        while (true) {
+            int doc = Segment.Postings.NO_MORE_DOCS;
+            for (Segment.Postings cursor : cursors) {
+                if (cursor != null) {
+                    doc = Math.min(doc, cursor.doc());
+                }
+            }
+            if (doc == Segment.Postings.NO_MORE_DOCS) {
+                return;
+            }
+            boolean live = !segment.isDeleted(doc);
+            double score = 0;
+            for (int t = 0; t < cursors.length; t++) {
+                Segment.Postings cursor = cursors[t];
+                if (cursor != null && cursor.doc() == doc) {
+                    if (live) {
+                        score += scorer.score(t, cursor.freqTitre(), segment.lengthTitre(doc),
+                                cursor.freqAuteur(), segment.lengthAuteur(doc));
+                    }
+                    cursor.next();
+                }
+            }
+            if (live) {
+                top.offer(segment.bookId(doc), score);
+            }
+        }
+    }
+
+    // ========================
+    // Écriture des segments
+    // ========================
+
+    /**
+     * Écrit le tampon, les suppressions et le manifeste ; les fichiers remplacés sont ensuite supprimés
+     */
+    public void commit() {
+        commit(null);
+    }
+
+    /**
+     * Commit en avançant la date de rattrapage (enregistrée avec le prochain manifeste)
+     * @param appliedUntil date avant laquelle toutes les écritures validées ont été appliquées
+     */
+    public void commit(Instant appliedUntil) {
+        lock.writeLock().lock();
+        try {
+            requireOpen();
+            if (appliedUntil != null) {
+                watermark = Math.max(watermark, ChronoUnit.MICROS.between(Instant.EPOCH, appliedUntil));
+            }
+            if (!buffer.isEmpty()) {
+                flush();
+            }
+            for (Segment segment : segments) {
+                if (segment.deletionsDirty()) {
+                    String previous = segment.writeDeletions(directory);
+                    if (previous != null) {
+                        obsoleteFiles.add(previous);
+                    }
+                    dirty = true;
+                }
+            }
+            if (!dirty) {
+                return;
+            }
+            writeManifest();
+            dirty = false;
+            for (String file : obsoleteFiles) {
+                deleteQuietly(directory.resolve(file));
+            }
+            obsoleteFiles.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Commit de l'index plein texte impossible", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Fusionne des segments tant que la politique de fusion en sélectionne
+     * L'écriture du segment fusionné se fait hors verrou : recherches et écritures continuent
+     */
+    public void maybeMerge() {
+        synchronized (mergeLock) {
+            while (true) {
+                List<Segment> sources;
+                List<BitSet> deletedAtStart = new ArrayList<>();
+                String name;
+                lock.readLock().lock();
+                try {
+                    sources = selectMerge();
+                    if (sources.isEmpty()) {
+                        return;
+                    }
+                    sources.forEach(source -> deletedAtStart.add(source.deletedDocs()));
+                } finally {
+                    lock.readLock().unlock();
+                }
+                lock.writeLock().lock();
+                try {
+                    name = newSegmentName();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                long start = System.currentTimeMillis();
+                try {
+                    int docCount = SegmentMerger.merge(directory, name, sources, deletedAtStart);
+                    swapMerged(sources, deletedAtStart, docCount == 0 ? null : Segment.open(directory, name, 0));
+                    log.debug("Segments fusionnés: {} → {} ({} livre(s)) en {} ms",
+                            sources.stream().map(Segment::name).toList(), name, docCount,
+                            System.currentTimeMillis() - start);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Fusion de segments impossible", e);
+                }
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Remplace les sources par le segment fusionné, en y reportant les suppressions survenues pendant la fusion
+     */
+    private void swapMerged(List<Segment> sources, List<BitSet> deletedAtStart, Segment merged) {
+        lock.writeLock().lock();
+        try {
+            List<Segment> next = new ArrayList<>(segments);
+            next.removeAll(sources);
+            if (merged != null) {
+                for (int s = 0; s < sources.size(); s++) {
+                    Segment source = sources.get(s);
+                    BitSet deletedSince = source.deletedDocs();
+                    deletedSince.andNot(deletedAtStart.get(s));
+                    for (int doc = deletedSince.nextSetBit(0); doc >= 0; doc = deletedSince.nextSetBit(doc + 1)) {
+                        int mergedDoc = merged.find(source.bookId(doc));
+                        if (mergedDoc >= 0) {
+                            merged.delete(mergedDoc);
+                        }
+                    }
+                }
+                next.add(merged);
+            }
+            sources.forEach(source -> obsoleteFiles.addAll(source.files()));
+            segments = List.copyOf(next);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Au-delà de mergeFactor segments, les mergeFactor plus petits ;
+     * sinon un segment dont plus de la moitié des documents est supprimée
+     */
+    private List<Segment> selectMerge() {
+        if (segments.size() > mergeFactor) {
+            return segments.stream()
+                    .sorted(Comparator.comparingInt(Segment::liveCount))
+                    .limit(mergeFactor)
+                    .toList();
+        }
+        return segments.stream()
+                .filter(segment -> segment.deletedCount() * 2 > segment.docCount())
+                .limit(1)
+                .toList();
+    }
+
+    /**
+     * Écrit le tampon dans un nouveau segment (sous verrou d'écriture)
+     */
+    private void flush() throws IOException {
+        List<Doc> docs = new ArrayList<>(buffer.values());
+        docs.sort(Comparator.comparingLong(Doc::bookId));
+        TreeMap<String, List<int[]>> postings = new TreeMap<>();
+        String name = newSegmentName();
+        try (SegmentWriter writer = new SegmentWriter(directory, name)) {
+            for (int doc = 0; doc < docs.size(); doc++) {
+                Doc d = docs.get(doc);
+                writer.addDoc(d.bookId, d.modified, d.lengthTitre, d.lengthAuteur);
+                for (Map.Entry<String, int[]> entry : d.freqs.entrySet()) {
+                    postings.computeIfAbsent(entry.getKey(), k -> new ArrayList<>())
+                            .add(new int[]{doc, entry.getValue()[0], entry.getValue()[1]});
+                }
+            }
+            for (Map.Entry<String, List<int[]>> entry : postings.entrySet()) {
+                writer.startTerm(entry.getKey(), entry.getValue().size());
+                for (int[] posting : entry.getValue()) {
+                    writer.addPosting(posting[0], posting[1], posting[2]);
+                }
+            }
+            writer.finish();
+        }
+
+        List<Segment> next = new ArrayList<>(segments);
+        next.add(Segment.open(directory, name, 0));
+        segments = List.copyOf(next);
+        buffer = new HashMap<>();
+        bufferLengthTitre = 0;
+        bufferLengthAuteur = 0;
+        dirty = true;
+        log.debug("Segment {} écrit: {} livre(s), {} terme(s)", name, docs.size(), postings.size());
+    }
+
+    private String newSegmentName() {
+        return "_" + Long.toString(nextGeneration++, Character.MAX_RADIX);
+    }
+
+    /**
+     * @return la date de modification du document vivant du livre, null s'il n'est pas indexé
+     */
+    private Long liveModified(long bookId) {
+        Doc doc = buffer.get(bookId);
+        if (doc != null) {
+            return doc.modified;
+        }
+        for (Segment segment : segments) {
+            int d = segment.find(bookId);
+            if (d >= 0 && !segment.isDeleted(d)) {
+                return segment.modified(d);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true si un document du livre a été supprimé
+     */
+    private boolean deleteLive(long bookId) {
+        boolean deleted = false;
+        Doc doc = buffer.remove(bookId);
+        if (doc != null) {
+            bufferLengthTitre -= doc.lengthTitre;
+            bufferLengthAuteur -= doc.lengthAuteur;
+            deleted = true;
+        }
+        for (Segment segment : segments) {
+            int d = segment.find(bookId);
+            if (d >= 0) {
+                deleted |= segment.delete(d);
+            }
+        }
+        return deleted;
+    }
+
+    private void requireOpen() {
+        if (!open) {
+            throw new IllegalStateException("Index plein texte non ouvert");
+        }
+    }
+
+    // ========================
+    // Manifeste
+    // ========================
+
+    private void load(Path manifest) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(manifest)) {
+            properties.load(in);
+        }
+        List<Segment> loaded = new ArrayList<>();
+        String list = properties.getProperty("segments", "");
+        for (String entry : list.isBlank() ? new String[0] : list.split(",")) {
+            String[] parts = entry.split(":");
+            loaded.add(Segment.open(directory, parts[0], Integer.parseInt(parts[1])));
+        }
+        String mark = properties.getProperty("watermark", "");
+        segments = List.copyOf(loaded);
+        nextGeneration = Long.parseLong(properties.getProperty("generation"));
+        watermark = mark.isBlank() ? Segment.UNKNOWN_MODIFIED : Long.parseLong(mark);
+    }
+
+    /**
+     * Nouveau manifeste écrit à côté puis renommé atomiquement : un arrêt brutal laisse l'ancien ou le nouveau
+     */
+    private void writeManifest() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("generation", Long.toString(nextGeneration));
+        properties.setProperty("segments", String.join(",",
+                segments.stream().map(segment -> segment.name() + ":" + segment.deletionGeneration()).toList()));
+        properties.setProperty("watermark", watermark == Segment.UNKNOWN_MODIFIED ? "" : Long.toString(watermark));
+
+        Path temporary = directory.resolve(MANIFEST + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            properties.store(out, "Index plein texte des livres");
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteUnreferencedFiles() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        referenced.add(MANIFEST);
+        segments.forEach(segment -> referenced.addAll(segment.files()));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && !referenced.contains(file.getFileName().toString())) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Encore mappé (Windows) : supprimé à la prochaine ouverture
+            log.debug("Suppression différée de {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Documents, segments et taille sur disque (bookstore.fulltext.*)
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "bookstore.fulltext.documents", "Livres dans l'index plein texte", FullTextIndex::size);
+        gauge(registry, "bookstore.fulltext.segments", "Segments de l'index plein texte", FullTextIndex::segmentCount);
+        Gauge.builder("bookstore.fulltext.disk", this, FullTextIndex::sizeOnDisk)
+                .description("Taille des segments sur disque")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, ToDoubleFunction<FullTextIndex> value) {
+        Gauge.builder(name, this, value).description(description).register(registry);
+    }
+
+    /**
+     * Livre trouvé et son score
+     */
+    public record Hit(Long id, double score) {
+    }
+
+    /**
+     * @param total nombre de livres trouvés (toutes pages confondues)
+     */
+    public record Result(List<Hit> hits, long total) {
+    }
+
+    /**
+     * Livre en attente d'écriture : fréquence de chaque mot dans le titre et l'auteur
+     */
+    private record Doc(long bookId, long modified, int lengthTitre, int lengthAuteur, Map<String, int[]> freqs) {
+
+        static Doc of(Book book) {
+            Map<String, int[]> freqs = new HashMap<>();
+            int lengthTitre = count(book.getTitre(), 0, freqs);
+            int lengthAuteur = count(book.getAuteur(), 1, freqs);
+            long modified = book.getLastModified() == null
+                    ? Segment.UNKNOWN_MODIFIED
+                    : ChronoUnit.MICROS.between(Instant.EPOCH, book.getLastModified());
+            return new Doc(book.getId(), modified, lengthTitre, lengthAuteur, freqs);
+        }
+
+        private static int count(String text, int field, Map<String, int[]> freqs) {
+            String normalized = TextNormalizer.normalize(text);
+            if (normalized.isEmpty()) {
+                return 0;
+            }
+            String[] words = normalized.split(" ");
+            for (String word : words) {
+                freqs.computeIfAbsent(word, w -> new int[2])[field]++;
+            }
+            return words.length;
+        }
+    }
+
+    /**
+     * BM25 par champ, idf calculé une fois par mot de la requête
+     */
+    private static final class Scorer {
+
+        private final double[] idf;
+        private final double averageTitre;
+        private final double averageAuteur;
+
+        Scorer(long docCount, long[] docFreqs, double averageTitre, double averageAuteur) {
+            this.idf = new double[docFreqs.length];
+            for (int t = 0; t < docFreqs.length; t++) {
+                idf[t] = Math.log(1 + (docCount - docFreqs[t] + 0.5) / (docFreqs[t] + 0.5));
+            }
+            this.averageTitre = averageTitre;
+            this.averageAuteur = averageAuteur;
+        }
+
+        double score(int term, int freqTitre, int lengthTitre, int freqAuteur, int lengthAuteur) {
+            return idf[term] * (TITRE_WEIGHT * saturate(freqTitre, lengthTitre, averageTitre)
+                    + AUTEUR_WEIGHT * saturate(freqAuteur, lengthAuteur, averageAuteur));
+        }
+
+        private static double saturate(int freq, int length, double average) {
+            if (freq == 0) {
+                return 0;
+            }
+            return freq * (K1 + 1) / (freq + K1 * (1 - B + B * length / average));
+        }
+    }
+
+    /**
+     * Meilleurs résultats (tas borné à offset + limit) et nombre total de livres trouvés
+     */
+    private static final class TopHits {
+
+        /** Le moins bon en tête : score croissant puis id décroissant */
+        private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+                .thenComparing(Hit::id, Comparator.reverseOrder());
+
+        private final int capacity;
+        private final PriorityQueue<Hit> heap;
+        private long total;
+
+        TopHits(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(Math.min(capacity, 1024) + 1, WORST_FIRST);
+        }
+
+        void offer(long bookId, double score) {
+            total++;
+            if (heap.size() < capacity) {
+                heap.add(new Hit(bookId, score));
+                return;
+            }
+            Hit candidate = new Hit(bookId, score);
+            if (WORST_FIRST.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<Hit> page(int offset, int limit) {
+            List<Hit> ranked = new ArrayList<>(heap);
+            ranked.sort(WORST_FIRST.reversed());
+            if (offset >= ranked.size()) {
+                return List.of();
+            }
+            return List.copyOf(ranked.subList(offset, Math.min(ranked.size(), offset + limit)));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package bf.isge.gsn.search.fulltext;
+
+import bf.isge.gsn.config.DeferredInitialization;
+import bf.isge.gsn.datasource.DataSourceRouting;
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.event.BookChangedEvent;
+import bf.isge.gsn.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maintient l'index plein texte sur disque
+ *
+ * - Au démarrage : réouverture des segments du dernier commit, puis rattrapage des livres modifiés
+ *   depuis ce commit (date de modification) et des suppressions manquées ; sans index existant, construction
+ *   complète par tranches (le tampon est écrit en segments au fil de l'eau, la mémoire reste bornée)
+ * - Ensuite : application de chaque BookChangedEvent après le commit, commit et fusion périodiques
+ *   (bookstore.search.fulltext.commit-interval)
+ *
+ * Pendant un rattrapage, les événements continuent d'être appliqués : un livre lu par le rattrapage
+ * avant une écriture concurrente (suppression comprise) serait réindexé dans son état périmé après
+ * l'événement. Les identifiants touchés par un événement pendant le rattrapage sont donc notés,
+ * et le rattrapage ne les réindexe pas : l'événement porte un état au moins aussi récent.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FullTextIndexMaintainer {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    /** Marge de relecture : une transaction validée tard peut porter une date de modification antérieure */
+    private static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+
+    private final FullTextIndex index;
+    private final BookRepository bookRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final DeferredInitialization deferredInitialization;
+
+    /** Protège changedDuringReconcile et l'indexation d'un livre relu par le rattrapage */
+    private final Object reconcileLock = new Object();
+    /** Livres modifiés ou supprimés par un événement pendant le rattrapage en cours (null hors rattrapage) */
+    private Set<Long> changedDuringReconcile;
+
+    /**
+     * Ouvre l'index une fois l'application démarrée (en arrière-plan en mode startup)
+     * Jusqu'à la fin du rattrapage, la recherche plein texte répond 503
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        deferredInitialization.run("fulltext-index", this::open);
+    }
+
+    public void open() {
+        long start = System.currentTimeMillis();
+        boolean reopened = index.open();
+        Instant watermark = index.watermark();
+        long read = reconcile(reopened ? watermark : null);
+        index.commit(Instant.now());
+        index.maybeMerge();
+        index.markReady();
+        if (reopened) {
+            log.info("Index plein texte rouvert: {} livre(s), {} segment(s), {} livre(s) relu(s) en {} ms",
+                    index.size(), index.segmentCount(), read, System.currentTimeMillis() - start);
+        } else {
+            log.info("Index plein texte construit: {} livre(s), {} segment(s) en {} ms",
+                    index.size(), index.segmentCount(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Rattrape les écritures absentes de l'index (écritures hors application, arrêt avant le commit)
+     * @param since date de rattrapage de l'index (null : relire tous les livres)
+     * @return le nombre de livres relus
+     */
+    public synchronized long reconcile(Instant since) {
+        synchronized (reconcileLock) {
+            changedDuringReconcile = new HashSet<>();
+        }
+        try {
+            return DataSourceRouting.onPrimary(() -> {
+                Instant start = Instant.now();
+                long read = load(since == null ? null : since.minus(CATCH_UP_MARGIN));
+                // Livres modifiés pendant la première passe, éventuellement lus avant leur dernière version
+                read += load(start.minus(CATCH_UP_MARGIN));
+                // Après la dernière passe : aucune lecture ne peut plus réintroduire un livre supprimé
+                removeDeleted();
+                return read;
+            });
+        } finally {
+            synchronized (reconcileLock) {
+                changedDuringReconcile = null;
+            }
+        }
+    }
+
+    /**
+     * Contrôle périodique (CatalogStatisticsReconciler) : rattrapage depuis le dernier commit
+     */
+    public void reconcile() {
+        if (index.isReady()) {
+            reconcile(index.watermark());
+        }
+    }
+
+    /**
+     * Applique une écriture validée ; avant l'ouverture, le rattrapage s'en charge
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (!index.isOpen()) {
+            return;
+        }
+        synchronized (reconcileLock) {
+            if (changedDuringReconcile != null) {
+                changedDuringReconcile.add(event.getBookId());
+            }
+            if (event.getType() == BookChangedEvent.Type.DELETED) {
+                index.remove(event.getBookId());
+            } else {
+                index.index(event.getCurrent());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${bookstore.search.fulltext.commit-interval:5s}",
+               fixedDelayString = "${bookstore.search.fulltext.commit-interval:5s}")
+    public void commit() {
+        if (!index.isReady()) {
+            return;
+        }
+        try {
+            // Les écritures validées avant cet instant ont été appliquées (aux événements en cours près : marge)
+            index.commit(Instant.now());
+            index.maybeMerge();
+        } catch (UncheckedIOException e) {
+            log.warn("Commit de l'index plein texte en échec, nouvel essai au prochain cycle: {}", e.getMessage());
+        }
+    }
+
+    private long load(Instant since) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        long lastId = 0L;
+        long total = 0L;
+        List<Book> chunk;
+        do {
+            long after = lastId;
+            chunk = readOnly.execute(status -> since == null
+                    ? bookRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(CHUNK_SIZE))
+                    : bookRepository.findByLastModifiedGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                            since, after, Limit.of(CHUNK_SIZE)));
+            synchronized (reconcileLock) {
+                for (Book book : chunk) {
+                    if (!changedDuringReconcile.contains(book.getId())) {
+                        index.index(book);
+                    }
+                    lastId = book.getId();
+                }
+            }
+            total += chunk.size();
+            index.maybeMerge();
+        } while (chunk.size() == CHUNK_SIZE);
+        return total;
+    }
+
+    /**
+     * Retire les livres supprimés en base (parcours complet de l'index par tranches d'identifiants)
+     * Pas de raccourci sur les effectifs : une insertion concurrente peut masquer une suppression
+     */
+    private void removeDeleted() {
+        long removed = 0;
+        long lastId = 0L;
+        List<Long> ids;
+        do {
+            ids = index.liveIds(lastId, CHUNK_SIZE);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(ids));
+            for (Long id : ids) {
+                if (!existing.contains(id)) {
+                    index.remove(id);
+                    removed++;
+                }
+            }
+            lastId = ids.get(ids.size() - 1);
+        } while (ids.size() == CHUNK_SIZE);
+        if (removed > 0) {
+            log.info("Index plein texte: {} livre(s) supprimé(s) en base retiré(s)", removed);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package bf.isge.gsn.search.fulltext;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Segment immuable de l'index plein texte, lu via des fichiers mappés en mémoire
+ *
+ * Trois fichiers par segment (entiers big-endian, chacun commence par un magic et la version du format) :
+ * - &lt;nom&gt;.doc : un enregistrement de DOC_BYTES par document, triés par id de livre croissant
+ *   (id, date de modification en µs, nombre de mots du titre, nombre de mots de l'auteur),
+ *   puis un pied : somme des longueurs du titre, de l'auteur, nombre de documents
+ * - &lt;nom&gt;.trm : termes triés ; pour chacun : longueur UTF-8 (u16), octets, nombre de documents,
+ *   puis les postings (document, fréquence dans le titre u16, fréquence dans l'auteur u16)
+ * - &lt;nom&gt;.tix : position de chaque terme dans .trm (recherche dichotomique)
+ *
+ * Les suppressions sont le seul état modifiable : un bitset en mémoire (un bit par document),
+ * enregistré dans &lt;nom&gt;_&lt;génération&gt;.del à chaque commit.
+ * Les accès concurrents sont protégés par le verrou de FullTextIndex.
+ */
+final class Segment {
+
+    static final int FORMAT_VERSION = 1;
+    static final int DOCS_MAGIC = 0x46544443;
+    static final int TERMS_MAGIC = 0x46545452;
+    static final int TERM_INDEX_MAGIC = 0x46545449;
+    static final int HEADER_BYTES = 8;
+    static final int DOC_BYTES = 24;
+    static final int DOCS_FOOTER_BYTES = 24;
+    static final int POSTING_BYTES = 8;
+
+    /** Date de modification inconnue (livres antérieurs à la colonne last_modified) */
+    static final long UNKNOWN_MODIFIED = Long.MIN_VALUE;
+
+    private final String name;
+    private final MappedByteBuffer docs;
+    private final MappedByteBuffer terms;
+    private final MappedByteBuffer termIndex;
+    private final int docCount;
+    private final int termCount;
+    private final long sumLengthTitre;
+    private final long sumLengthAuteur;
+    private final long sizeInBytes;
+
+    private final BitSet deleted;
+    private int deletedCount;
+    private int deletionGeneration;
+    private boolean deletionsDirty;
+
+    private Segment(String name, MappedByteBuffer docs, MappedByteBuffer terms, MappedByteBuffer termIndex,
+                    BitSet deleted, int deletionGeneration) throws IOException {
+        this.name = name;
+        this.docs = docs;
+        this.terms = terms;
+        this.termIndex = termIndex;
+        checkHeader(docs, DOCS_MAGIC);
+        checkHeader(terms, TERMS_MAGIC);
+        checkHeader(termIndex, TERM_INDEX_MAGIC);
+
+        int footer = docs.limit() - DOCS_FOOTER_BYTES;
+        this.sumLengthTitre = docs.getLong(footer);
+        this.sumLengthAuteur = docs.getLong(footer + 8);
+        this.docCount = docs.getInt(footer + 16);
+        if ((long) HEADER_BYTES + (long) docCount * DOC_BYTES + DOCS_FOOTER_BYTES != docs.limit()
+                || (termIndex.limit() - HEADER_BYTES) % Integer.BYTES != 0) {
+            throw new IOException("Segment " + name + " corrompu");
+        }
+        this.termCount = (termIndex.limit() - HEADER_BYTES) / Integer.BYTES;
+        this.sizeInBytes = (long) docs.limit() + terms.limit() + termIndex.limit();
+        this.deleted = deleted;
+        this.deletedCount = deleted.cardinality();
+        this.deletionGeneration = deletionGeneration;
+    }
+
+    /**
+     * Ouvre un segment écrit par SegmentWriter
+     * @param deletionGeneration génération du fichier de suppressions (0 : aucune suppression)
+     */
+    static Segment open(Path directory, String name, int deletionGeneration) throws IOException {
+        BitSet deleted = new BitSet();
+        if (deletionGeneration > 0) {
+            try (InputStream in = Files.newInputStream(directory.resolve(deletionsFile(name, deletionGeneration)));
+                 DataInputStream data = new DataInputStream(in)) {
+                long[] words = new long[data.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = data.readLong();
+                }
+                deleted = BitSet.valueOf(words);
+            }
+        }
+        return new Segment(name,
+                map(directory.resolve(name + ".doc")),
+                map(directory.resolve(name + ".trm")),
+                map(directory.resolve(name + ".tix")),
+                deleted, deletionGeneration);
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Fichier de segment trop volumineux: " + file);
+            }
+            // Le mappage reste valide après la fermeture du canal
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static void checkHeader(ByteBuffer buffer, int magic) throws IOException {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != magic || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Fichier de segment invalide (format " + FORMAT_VERSION + " attendu)");
+        }
+    }
+
+    static String deletionsFile(String name, int generation) {
+        return name + "_" + generation + ".del";
+    }
+
+    String name() {
+        return name;
+    }
+
+    int deletionGeneration() {
+        return deletionGeneration;
+    }
+
+    /**
+     * Fichiers actuellement utilisés par le segment
+     */
+    List<String> files() {
+        return deletionGeneration == 0
+                ? List.of(name + ".doc", name + ".trm", name + ".tix")
+                : List.of(name + ".doc", name + ".trm", name + ".tix", deletionsFile(name, deletionGeneration));
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int liveCount() {
+        return docCount - deletedCount;
+    }
+
+    int deletedCount() {
+        return deletedCount;
+    }
+
+    long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    long sumLengthTitre() {
+        return sumLengthTitre;
+    }
+
+    long sumLengthAuteur() {
+        return sumLengthAuteur;
+    }
+
+    // ========================
+    // Documents
+    // ========================
+
+    long bookId(int doc) {
+        return docs.getLong(HEADER_BYTES + doc * DOC_BYTES);
+    }
+
+    long modified(int doc) {
+        return docs.getLong(HEADER_BYTES + doc * DOC_BYTES + 8);
+    }
+
+    int lengthTitre(int doc) {
+        return docs.getInt(HEADER_BYTES + doc * DOC_BYTES + 16);
+    }
+
+    int lengthAuteur(int doc) {
+        return docs.getInt(HEADER_BYTES + doc * DOC_BYTES + 20);
+    }
+
+    /**
+     * @return le document du livre (recherche dichotomique, supprimé ou non), -1 s'il est absent
+     */
+    int find(long bookId) {
+        int low = 0;
+        int high = docCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = bookId(mid);
+            if (id < bookId) {
+                low = mid + 1;
+            } else if (id > bookId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return le premier document dont l'id de livre est strictement supérieur
+     */
+    int firstAfter(long bookId) {
+        int low = 0;
+        int high = docCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bookId(mid) <= bookId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    boolean isDeleted(int doc) {
+        return deleted.get(doc);
+    }
+
+    /**
+     * @return true si le document n'était pas déjà supprimé
+     */
+    boolean delete(int doc) {
+        if (deleted.get(doc)) {
+            return false;
+        }
+        deleted.set(doc);
+        deletedCount++;
+        deletionsDirty = true;
+        return true;
+    }
+
+    BitSet deletedDocs() {
+        return (BitSet) deleted.clone();
+    }
+
+    boolean deletionsDirty() {
+        return deletionsDirty;
+    }
+
+    /**
+     * Enregistre les suppressions dans un nouveau fichier de génération suivante
+     * @return le fichier de la génération précédente, à supprimer après le commit (null s'il n'y en a pas)
+     */
+    String writeDeletions(Path directory) throws IOException {
+        String previous = deletionGeneration == 0 ? null : deletionsFile(name, deletionGeneration);
+        int generation = deletionGeneration + 1;
+        Path file = directory.resolve(deletionsFile(name, generation));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            DataOutputStream data = new DataOutputStream(out);
+            long[] words = deleted.toLongArray();
+            data.writeInt(words.length);
+            for (long word : words) {
+                data.writeLong(word);
+            }
+            data.flush();
+            channel.force(true);
+        }
+        deletionGeneration = generation;
+        deletionsDirty = false;
+        return previous;
+    }
+
+    // ========================
+    // Termes et postings
+    // ========================
+
+    /**
+     * @return les postings du terme, null s'il est absent du segment
+     */
+    Postings postings(String term) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int offset = termOffset(mid);
+            int cmp = termAt(offset).compareTo(term);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return postingsAt(offset);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parcours de tous les termes dans l'ordre (fusion de segments)
+     */
+    TermCursor terms() {
+        return new TermCursor();
+    }
+
+    private int termOffset(int ordinal) {
+        return termIndex.getInt(HEADER_BYTES + ordinal * Integer.BYTES);
+    }
+
+    private String termAt(int offset) {
+        byte[] bytes = new byte[Short.toUnsignedInt(terms.getShort(offset))];
+        terms.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Postings postingsAt(int offset) {
+        int length = Short.toUnsignedInt(terms.getShort(offset));
+        int docFreq = terms.getInt(offset + 2 + length);
+        return new Postings(terms, offset + 2 + length + Integer.BYTES, docFreq);
+    }
+
+    /**
+     * Curseur sur les postings d'un terme, dans l'ordre croissant des documents
+     */
+    static final class Postings {
+
+        static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int docFreq;
+        private int index = -1;
+        private int doc = -1;
+        private int freqTitre;
+        private int freqAuteur;
+
+        private Postings(ByteBuffer buffer, int start, int docFreq) {
+            this.buffer = buffer;
+            this.start = start;
+            this.docFreq = docFreq;
+        }
+
+        int docFreq() {
+            return docFreq;
+        }
+
+        /**
+         * @return false une fois tous les postings lus (doc vaut alors NO_MORE_DOCS)
+         */
+        boolean next() {
+            if (++index >= docFreq) {
+                doc = NO_MORE_DOCS;
+                return false;
+            }
+            int offset = start + index * POSTING_BYTES;
+            doc = buffer.getInt(offset);
+            freqTitre = Short.toUnsignedInt(buffer.getShort(offset + 4));
+            freqAuteur = Short.toUnsignedInt(buffer.getShort(offset + 6));
+            return true;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int freqTitre() {
+            return freqTitre;
+        }
+
+        int freqAuteur() {
+            return freqAuteur;
+        }
+    }
+
+    /**
+     * Curseur séquentiel sur les termes du segment
+     */
+    final class TermCursor {
+
+        private int offset = HEADER_BYTES;
+        private String term;
+        private int termOffset;
+
+        /**
+         * @return false après le dernier terme
+         */
+        boolean next() {
+            if (term != null) {
+                Postings current = postingsAt(termOffset);
+                offset = current.start + current.docFreq * POSTING_BYTES;
+            }
+            if (offset >= terms.limit()) {
+                term = null;
+                return false;
+            }
+            termOffset = offset;
+            term = termAt(offset);
+            return true;
+        }
+
+        String term() {
+            return term;
+        }
+
+        Postings postings() {
+            return postingsAt(termOffset);
+        }
+
+        Segment segment() {
+            return Segment.this;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package bf.isge.gsn.search.fulltext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Fusion de segments en un seul, sans les documents supprimés
+ *
+ * Les documents sont fusionnés par id de livre croissant (chaque segment est déjà trié) : la
+ * renumérotation est croissante dans chaque segment source, les postings d'un terme se fusionnent
+ * donc sans tri. Les termes sont parcourus ensemble dans l'ordre (fusion à k voies) ; seules les
+ * tables de renumérotation (un int par document) sont en mémoire.
+ */
+final class SegmentMerger {
+
+    private SegmentMerger() {
+    }
+
+    /**
+     * @param deleted suppressions de chaque source à prendre en compte (instantané, même ordre que sources)
+     * @return le nombre de documents du segment écrit (0 : aucun fichier n'est conservé)
+     */
+    static int merge(Path directory, String name, List<Segment> sources, List<BitSet> deleted) throws IOException {
+        try (SegmentWriter writer = new SegmentWriter(directory, name)) {
+            int[][] docMaps = writeDocs(writer, sources, deleted);
+            if (writer.docCount() == 0) {
+                return 0;
+            }
+            writeTerms(writer, sources, docMaps);
+            writer.finish();
+            return writer.docCount();
+        }
+    }
+
+    /**
+     * Écrit les documents conservés
+     * @return pour chaque source : nouveau numéro de chaque document, -1 s'il est supprimé
+     */
+    private static int[][] writeDocs(SegmentWriter writer, List<Segment> sources, List<BitSet> deleted) throws IOException {
+        int[][] docMaps = new int[sources.size()][];
+        int[] next = new int[sources.size()];
+        for (int s = 0; s < sources.size(); s++) {
+            docMaps[s] = new int[sources.get(s).docCount()];
+        }
+        int newDoc = 0;
+        long lastBookId = Long.MIN_VALUE;
+        while (true) {
+            int min = -1;
+            long minBookId = Long.MAX_VALUE;
+            for (int s = 0; s < sources.size(); s++) {
+                if (next[s] < docMaps[s].length) {
+                    long bookId = sources.get(s).bookId(next[s]);
+                    if (min < 0 || bookId < minBookId) {
+                        min = s;
+                        minBookId = bookId;
+                    }
+                }
+            }
+            if (min < 0) {
+                return docMaps;
+            }
+            Segment source = sources.get(min);
+            int doc = next[min]++;
+            // Un même livre ne peut être vivant que dans un segment ; par prudence le doublon est écarté
+            if (deleted.get(min).get(doc) || minBookId == lastBookId) {
+                docMaps[min][doc] = -1;
+                continue;
+            }
+            writer.addDoc(minBookId, source.modified(doc), source.lengthTitre(doc), source.lengthAuteur(doc));
+            docMaps[min][doc] = newDoc++;
+            lastBookId = minBookId;
+        }
+    }
+
+    private static void writeTerms(SegmentWriter writer, List<Segment> sources, int[][] docMaps) throws IOException {
+        PriorityQueue<Source> queue = new PriorityQueue<>(
+                Comparator.comparing((Source source) -> source.cursor.term()).thenComparingInt(Source::index));
+        for (int s = 0; s < sources.size(); s++) {
+            Segment.TermCursor cursor = sources.get(s).terms();
+            if (cursor.next()) {
+                queue.add(new Source(s, cursor));
+            }
+        }
+
+        List<Source> current = new ArrayList<>();
+        while (!queue.isEmpty()) {
+            String term = queue.peek().cursor.term();
+            current.clear();
+            while (!queue.isEmpty() && queue.peek().cursor.term().equals(term)) {
+                current.add(queue.poll());
+            }
+            writeTerm(writer, term, current, docMaps);
+            for (Source source : current) {
+                if (source.cursor.next()) {
+                    queue.add(source);
+                }
+            }
+        }
+    }
+
+    private static void writeTerm(SegmentWriter writer, String term, List<Source> sources, int[][] docMaps) throws IOException {
+        int docFreq = 0;
+        for (Source source : sources) {
+            Segment.Postings postings = source.cursor.postings();
+            while (postings.next()) {
+                if (docMaps[source.index][postings.doc()] >= 0) {
+                    docFreq++;
+                }
+            }
+        }
+        if (docFreq == 0) {
+            return;
+        }
+
+        Segment.Postings[] postings = new Segment.Postings[sources.size()];
+        int[] mapped = new int[sources.size()];
+        for (int i = 0; i < postings.length; i++) {
+            postings[i] = sources.get(i).cursor.postings();
+            mapped[i] = nextLive(postings[i], docMaps[sources.get(i).index]);
+        }
+        writer.startTerm(term, docFreq);
+        while (true) {
+            int min = -1;
+            for (int i = 0; i < postings.length; i++) {
+                if (mapped[i] >= 0 && (min < 0 || mapped[i] < mapped[min])) {
+                    min = i;
+                }
+            }
+            if (min < 0) {
+                return;
+            }
+            writer.addPosting(mapped[min], postings[min].freqTitre(), postings[min].freqAuteur());
+            mapped[min] = nextLive(postings[min], docMaps[sources.get(min).index]);
+        }
+    }
+
+    /**
+     * @return le nouveau numéro du posting vivant suivant, -1 à la fin
+     */
+    private static int nextLive(Segment.Postings postings, int[] docMap) {
+        while (postings.next()) {
+            int doc = docMap[postings.doc()];
+            if (doc >= 0) {
+                return doc;
+            }
+        }
+        return -1;
+    }
+
+    private record Source(int index, Segment.TermCursor cursor) {
+    }
+}
@@ -0,0 +1,173 @@
+package bf.isge.gsn.search.fulltext;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Écriture séquentielle d'un segment au format décrit par Segment
+ *
+ * Ordre imposé : les documents (id de livre croissant), puis les termes (ordre de String.compareTo),
+ * chacun suivi de ses postings (documents croissants), puis finish(). Les fichiers sont synchronisés
+ * sur disque avant d'être référencés par le manifeste ; close() sans finish() les supprime.
+ */
+final class SegmentWriter implements Closeable {
+
+    private final Path directory;
+    private final String name;
+    private final Output docs;
+    private final Output terms;
+    private final Output termIndex;
+
+    private int docCount;
+    private long lastBookId = Long.MIN_VALUE;
+    private long sumLengthTitre;
+    private long sumLengthAuteur;
+    private String lastTerm;
+    private int pendingPostings;
+    private int lastDoc;
+    private boolean finished;
+
+    SegmentWriter(Path directory, String name) throws IOException {
+        this.directory = directory;
+        this.name = name;
+        Output docsOutput = null;
+        Output termsOutput = null;
+        try {
+            docsOutput = new Output(directory.resolve(name + ".doc"), Segment.DOCS_MAGIC);
+            termsOutput = new Output(directory.resolve(name + ".trm"), Segment.TERMS_MAGIC);
+            this.termIndex = new Output(directory.resolve(name + ".tix"), Segment.TERM_INDEX_MAGIC);
+        } catch (IOException e) {
+            closeQuietly(docsOutput);
+            closeQuietly(termsOutput);
+            deleteFiles();
+            throw e;
+        }
+        this.docs = docsOutput;
+        this.terms = termsOutput;
+    }
+
+    void addDoc(long bookId, long modified, int lengthTitre, int lengthAuteur) throws IOException {
+        if (bookId <= lastBookId || lastTerm != null) {
+            throw new IllegalStateException("Documents attendus par id de livre croissant, avant les termes");
+        }
+        docs.data.writeLong(bookId);
+        docs.data.writeLong(modified);
+        docs.data.writeInt(lengthTitre);
+        docs.data.writeInt(lengthAuteur);
+        lastBookId = bookId;
+        sumLengthTitre += lengthTitre;
+        sumLengthAuteur += lengthAuteur;
+        docCount++;
+    }
+
+    void startTerm(String term, int docFreq) throws IOException {
+        if (pendingPostings != 0 || (lastTerm != null && lastTerm.compareTo(term) >= 0) || docFreq <= 0) {
+            throw new IllegalStateException("Termes attendus dans l'ordre, chacun avec ses postings");
+        }
+        byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Terme trop long");
+        }
+        if (terms.offset + 2 + bytes.length + Integer.BYTES + (long) docFreq * Segment.POSTING_BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Segment trop volumineux (2 Go maximum par fichier)");
+        }
+        termIndex.data.writeInt((int) terms.offset);
+        terms.data.writeShort(bytes.length);
+        terms.data.write(bytes);
+        terms.data.writeInt(docFreq);
+        terms.offset += 2 + bytes.length + Integer.BYTES;
+        lastTerm = term;
+        pendingPostings = docFreq;
+        lastDoc = -1;
+    }
+
+    void addPosting(int doc, int freqTitre, int freqAuteur) throws IOException {
+        if (pendingPostings == 0 || doc <= lastDoc || doc >= docCount) {
+            throw new IllegalStateException("Postings attendus par document croissant");
+        }
+        terms.data.writeInt(doc);
+        terms.data.writeShort(Math.min(freqTitre, 0xFFFF));
+        terms.data.writeShort(Math.min(freqAuteur, 0xFFFF));
+        terms.offset += Segment.POSTING_BYTES;
+        lastDoc = doc;
+        pendingPostings--;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    /**
+     * Termine le segment et synchronise ses fichiers sur disque
+     */
+    void finish() throws IOException {
+        if (pendingPostings != 0) {
+            throw new IllegalStateException("Postings manquants pour le terme " + lastTerm);
+        }
+        docs.data.writeLong(sumLengthTitre);
+        docs.data.writeLong(sumLengthAuteur);
+        docs.data.writeInt(docCount);
+        docs.data.writeInt(0);
+        docs.sync();
+        terms.sync();
+        termIndex.sync();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeQuietly(docs);
+        closeQuietly(terms);
+        closeQuietly(termIndex);
+        if (!finished) {
+            deleteFiles();
+        }
+    }
+
+    private void deleteFiles() throws IOException {
+        for (String extension : new String[]{".doc", ".trm", ".tix"}) {
+            Files.deleteIfExists(directory.resolve(name + extension));
+        }
+    }
+
+    private static void closeQuietly(Output output) {
+        if (output != null) {
+            try {
+                output.channel.close();
+            } catch (IOException ignored) {
+                // fichier supprimé ou déjà fermé
+            }
+        }
+    }
+
+    /**
+     * Fichier en écriture bufferisée, avec sa position courante
+     */
+    private static final class Output {
+
+        private final FileChannel channel;
+        private final DataOutputStream data;
+        private long offset;
+
+        Output(Path file, int magic) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            data.writeInt(magic);
+            data.writeInt(Segment.FORMAT_VERSION);
+            this.offset = Segment.HEADER_BYTES;
+        }
+
+        void sync() throws IOException {
+            data.flush();
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package bf.isge.gsn.service;
+
+import bf.isge.gsn.dto.BookBatchResult;
+import bf.isge.gsn.dto.BookBatchResult.ItemResult;
+import bf.isge.gsn.dto.BookBatchResult.Status;
+import bf.isge.gsn.dto.BookBulkResult;
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.event.BookChangedEvent;
+import bf.isge.gsn.repository.BookRepository;
+import bf.isge.gsn.repository.BookRepository.PriceRange;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service d'écriture de livres en lot
+ *
+ * Import (flux fournisseurs) :
+ * - chaque élément est validé individuellement
+ * - les éléments valides sont écrits par tranches, une transaction par tranche,
+ *   avec batch JDBC (id générés par séquence)
+ * - upsert sur le titre (unique) : un titre existant est mis à jour
+ * - si une tranche échoue, ses éléments sont rejoués un par un :
+ *   une ligne en erreur n'annule jamais le reste du lot
+ *
+ * Opérations de masse (révision de prix, suppression) :
+ * - un UPDATE / DELETE ensembliste (WHERE id IN ...) par tranche, une transaction par tranche
+ * - version et date de modification mises à jour comme pour une écriture unitaire
+ * - un BookChangedEvent par livre : caches et index restent synchronisés
+ */
+@Service
+@Slf4j
+public class BookBatchService {
+
+    /** Prix maximum accepté par la validation de Book */
+    private static final BigDecimal MAX_PRIX = new BigDecimal("150000.00");
+
+    private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public BookBatchService(BookRepository bookRepository,
+                            EntityManager entityManager,
+                            Validator validator,
+                            ApplicationEventPublisher eventPublisher,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${bookstore.batch.chunk-size:500}") int chunkSize,
+                            @Value("${bookstore.batch.max-items:50000}") int maxItems) {
+        this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Crée ou met à jour (sur le titre) une liste de livres
+     * @param books livres à importer (null pour un élément illisible)
+     * @param parseErrors erreurs de lecture par position, pour les éléments null
+     * @return le résultat par élément
+     */
+    public BookBatchResult upsertBooks(List<Book> books, Map<Integer, String> parseErrors) {
+        if (books.size() > maxItems) {
+            throw new IllegalArgumentException("Le lot dépasse la taille maximale autorisée (" + maxItems + " éléments)");
+        }
+        log.info("Import en lot de {} livre(s), tranches de {}", books.size(), chunkSize);
+        long start = System.currentTimeMillis();
+
+        ItemResult[] results = new ItemResult[books.size()];
+        List<Integer> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < books.size(); i++) {
+            Book book = books.get(i);
+            String error = book == null ? parseErrors.getOrDefault(i, "Élément illisible") : validate(book);
+            if (error != null) {
+                results[i] = new ItemResult(i, Status.FAILED, null, book != null ? book.getTitre() : null, error);
+                continue;
+            }
+            resetIdentity(book);
+            chunk.add(i);
+            if (chunk.size() == chunkSize) {
+                writeChunk(books, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(books, chunk, results);
+        }
+
+        BookBatchResult result = summarize(Arrays.asList(results));
+        log.info("Import en lot terminé en {} ms: {} créé(s), {} mis à jour, {} rejeté(s)",
+                 System.currentTimeMillis() - start, result.getCreated(), result.getUpdated(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Applique un coefficient au prix de tous les livres d'un auteur
+     * Les livres sont parcourus par tranches (pagination par clé sur l'id)
+     * @param auteur l'auteur (nom exact)
+     * @param multiplier coefficient appliqué au prix, arrondi à 2 décimales
+     * @return le nombre de livres modifiés et la durée
+     */
+    public BookBulkResult repriceByAuteur(String auteur, BigDecimal multiplier) {
+        long start = System.currentTimeMillis();
+        checkRepricedRange(auteur, multiplier);
+        log.info("Révision des prix de l'auteur '{}' (x{}), tranches de {}", auteur, multiplier, chunkSize);
+
+        int affected = 0;
+        int chunks = 0;
+        long lastId = 0L;
+        ChunkResult chunk;
+        do {
+            long after = lastId;
+            chunk = transactionTemplate.execute(status -> repriceChunk(auteur, multiplier, after));
+            if (chunk.read() > 0) {
+                chunks++;
+            }
+            affected += chunk.affected();
+            lastId = chunk.lastId();
+        } while (chunk.read() == chunkSize);
+
+        BookBulkResult result = new BookBulkResult(affected, chunks, System.currentTimeMillis() - start);
+        log.info("Révision des prix terminée en {} ms: {} livre(s) modifié(s)", result.getDurationMs(), affected);
+        return result;
+    }
+
+    /**
+     * Supprime un ensemble de livres (les identifiants inconnus sont ignorés)
+     * @param ids identifiants des livres
+     * @return le nombre de livres supprimés et la durée
+     */
+    public BookBulkResult deleteByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.size() > maxItems) {
+            throw new IllegalArgumentException("Le lot dépasse la taille maximale autorisée (" + maxItems + " éléments)");
+        }
+        long start = System.currentTimeMillis();
+        log.info("Suppression en masse de {} livre(s), tranches de {}", distinctIds.size(), chunkSize);
+
+        int affected = 0;
+        int chunks = 0;
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            affected += transactionTemplate.execute(status -> deleteChunk(chunk));
+            chunks++;
+        }
+
+        BookBulkResult result = new BookBulkResult(affected, chunks, System.currentTimeMillis() - start);
+        log.info("Suppression en masse terminée en {} ms: {} livre(s) supprimé(s)", result.getDurationMs(), affected);
+        return result;
+    }
+
+    /**
+     * Les prix révisés doivent rester valides (0 < prix <= 150000) : vérifié sur les bornes,
+     * avant toute écriture, plutôt que ligne par ligne
+     */
+    private void checkRepricedRange(String auteur, BigDecimal multiplier) {
+        PriceRange range = bookRepository.findPriceRangeByAuteur(auteur);
+        if (range == null || range.getMin() == null) {
+            return;
+        }
+        if (reprice(range.getMin(), multiplier).signum() <= 0) {
+            throw new IllegalArgumentException("Le coefficient donnerait un prix nul pour au moins un livre de cet auteur");
+        }
+        if (reprice(range.getMax(), multiplier).compareTo(MAX_PRIX) > 0) {
+            throw new IllegalArgumentException("Le coefficient donnerait un prix supérieur à 150000 CFA pour au moins un livre de cet auteur");
+        }
+    }
+
+    /**
+     * Même arrondi que ROUND(prix * coefficient, 2) en base
+     */
+    private static BigDecimal reprice(BigDecimal prix, BigDecimal multiplier) {
+        return prix.multiply(multiplier).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private ChunkResult repriceChunk(String auteur, BigDecimal multiplier, long after) {
+        List<Book> previous = bookRepository.findByAuteurAndIdGreaterThanOrderByIdAsc(auteur, after, Limit.of(chunkSize));
+        if (previous.isEmpty()) {
+            return new ChunkResult(0, 0, after);
+        }
+        List<Long> ids = previous.stream().map(Book::getId).toList();
+        int rows = bookRepository.repriceByIdIn(ids, multiplier, Instant.now().truncatedTo(ChronoUnit.MICROS));
+
+        // Relecture de la tranche (contexte vidé par l'UPDATE) : état exact pour les index
+        Map<Long, Book> current = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        for (Book book : previous) {
+            Book updated = current.get(book.getId());
+            if (updated != null) {
+                eventPublisher.publishEvent(BookChangedEvent.updated(book, updated));
+            }
+        }
+        entityManager.clear();
+        return new ChunkResult(previous.size(), rows, ids.get(ids.size() - 1));
+    }
+
+    private int deleteChunk(List<Long> ids) {
+        List<Book> previous = bookRepository.findAllById(ids);
+        if (previous.isEmpty()) {
+            return 0;
+        }
+        int rows = bookRepository.deleteAllByIdIn(previous.stream().map(Book::getId).toList());
+        previous.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.deleted(book)));
+        entityManager.clear();
+        return rows;
+    }
+
+    /**
+     * Bilan d'une tranche : livres lus, lignes écrites, dernier id (reprise de la pagination par clé)
+     */
+    private record ChunkResult(int read, int affected, long lastId) {
+    }
+
+    private String validate(Book book) {
+        Set<ConstraintViolation<Book>> violations = validator.validate(book);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Écrit une tranche dans sa propre transaction ; en cas d'échec, rejoue élément par élément
+     */
+    private void writeChunk(List<Book> books, List<Integer> indexes, ItemResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert(books, indexes, results));
+        } catch (RuntimeException e) {
+            log.warn("Échec de la tranche ({} éléments), reprise élément par élément: {}", indexes.size(), e.getMessage());
+            // Les id et versions attribués pendant la tentative annulée ne sont plus valides
+            entityManager.clear();
+            indexes.forEach(index -> resetIdentity(books.get(index)));
+            for (Integer index : indexes) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> upsert(books, List.of(index), results));
+                } catch (RuntimeException ex) {
+                    Book book = books.get(index);
+                    resetIdentity(book);
+                    results[index] = new ItemResult(index, Status.FAILED, null, book.getTitre(), rootMessage(ex));
+                }
+            }
+        }
+    }
+
+    private void upsert(List<Book> books, List<Integer> indexes, ItemResult[] results) {
+        List<String> titres = indexes.stream().map(i -> books.get(i).getTitre()).toList();
+        Map<String, Book> existing = new HashMap<>();
+        bookRepository.findByTitreIn(titres).forEach(book -> existing.put(book.getTitre(), book));
+
+        // Entités écrites et état précédent (null : création) ; événements construits après le flush
+        List<Book> written = new ArrayList<>(indexes.size());
+        List<Book> previousStates = new ArrayList<>(indexes.size());
+        List<ItemResult> chunkResults = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            Book item = books.get(index);
+            Book target = existing.get(item.getTitre());
+            if (target != null) {
+                Book previous = BookChangedEvent.snapshot(target);
+                target.setAuteur(item.getAuteur());
+                target.setPrix(item.getPrix());
+                written.add(target);
+                previousStates.add(previous);
+                chunkResults.add(new ItemResult(index, Status.UPDATED, target.getId(), target.getTitre(), null));
+            } else {
+                Book saved = bookRepository.save(item);
+                existing.put(saved.getTitre(), saved);
+                written.add(saved);
+                previousStates.add(null);
+                chunkResults.add(new ItemResult(index, Status.CREATED, saved.getId(), saved.getTitre(), null));
+            }
+        }
+        // Un seul flush : INSERT/UPDATE regroupés en batch JDBC
+        bookRepository.flush();
+        // Après le flush : version et date de modification définitives dans les événements
+        List<BookChangedEvent> events = new ArrayList<>(written.size());
+        for (int i = 0; i < written.size(); i++) {
+            Book previous = previousStates.get(i);
+            events.add(previous == null
+                    ? BookChangedEvent.created(written.get(i))
+                    : BookChangedEvent.updated(previous, written.get(i)));
+        }
+        // Le contexte de persistance peut être partagé avec la requête (open-in-view) :
+        // on le vide pour que chaque tranche reparte d'un contexte vide
+        entityManager.clear();
+
+        events.forEach(eventPublisher::publishEvent);
+        chunkResults.forEach(r -> results[r.getIndex()] = r);
+    }
+
+    /**
+     * Un élément du lot est toujours traité comme un nouveau livre (id et version attribués par Hibernate)
+     */
+    private static void resetIdentity(Book book) {
+        book.setId(null);
+        book.setVersion(null);
+    }
+
+    private static BookBatchResult summarize(List<ItemResult> items) {
+        int created = 0;
+        int updated = 0;
+        int failed = 0;
+        for (ItemResult item : items) {
+            switch (item.getStatus()) {
+                case CREATED -> created++;
+                case UPDATED -> updated++;
+                case FAILED -> failed++;
+            }
+        }
+        return new BookBatchResult(items.size(), created, updated, failed, items);
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
@@ -1,21 +1,86 @@
 package bf.isge.gsn.service;
 
+import bf.isge.gsn.cache.BookCache;
+import bf.isge.gsn.cache.SearchResultCache;
+import bf.isge.gsn.datasource.DataSourceRouting;
+import bf.isge.gsn.dto.BookCursor;
+import bf.isge.gsn.dto.BookSuggestion;
+import bf.isge.gsn.dto.CatalogStats;
+import bf.isge.gsn.dto.CursorPage;
+import bf.isge.gsn.dto.FullTextMatch;
+import bf.isge.gsn.dto.FuzzyMatch;
+import bf.isge.gsn.dto.FuzzySearchResult;
 import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.event.BookChangedEvent;
 import bf.isge.gsn.exception.ResourceNotFoundException;
+import bf.isge.gsn.exception.ServiceOverloadedException;
+import bf.isge.gsn.exception.VersionConflictException;
 import bf.isge.gsn.repository.BookRepository;
+import bf.isge.gsn.repository.BookRepository.AuteurCount;
+import bf.isge.gsn.repository.BookRepository.CatalogTotals;
+import bf.isge.gsn.repository.BookSpecifications;
+import bf.isge.gsn.resilience.BulkheadExempt;
+import bf.isge.gsn.search.CatalogStatistics;
+import bf.isge.gsn.search.FuzzyIndex;
+import bf.isge.gsn.search.SuggestIndex;
+import bf.isge.gsn.search.TextNormalizer;
+import bf.isge.gsn.search.TrigramIndex;
+import bf.isge.gsn.search.fulltext.FullTextIndex;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service métier pour la gestion des livres
  * Contient la logique métier et les traitements CRUD
+ *
+ * Les recherches partielles sur titre/auteur sont résolues par l'index trigrammes
+ * en mémoire (TrigramIndex) dès qu'il est prêt ; la base ne sert alors qu'à
+ * charger les livres trouvés. La recherche approchée est résolue par FuzzyIndex,
+ * les suggestions de saisie par SuggestIndex (sans aucun accès à la base),
+ * la recherche plein texte classée par FullTextIndex (segments sur disque).
+ * Chaque écriture publie un BookChangedEvent.
+ *
+ * getBookById passe par un cache borné (BookCache), invalidé après chaque écriture ;
+ * les écritures relisent toujours la base.
+ *
+ * Comptage et statistiques sont lus dans CatalogStatistics, maintenu en mémoire.
+ * Ces lectures servies en mémoire (cache, index, statistiques) ne démarrent pas de transaction
+ * (SUPPORTS) : seul un repli vers la base prend une connexion, et un permis du bulkhead.
+ *
+ * Les recherches textuelles et multicritère passent par SearchResultCache : les appels identiques
+ * simultanés partagent une seule exécution, dont le résultat reste servi quelques secondes tant
+ * que le catalogue n'a pas changé. Elles ne démarrent pas de transaction (SUPPORTS) : un appel
+ * qui attend le résultat d'un autre ne retient aucune connexion.
+ *
+ * L'échéance de la requête HTTP (RequestDeadline) suit chaque appel sur son thread : chaque
+ * requête SQL reçoit le temps restant comme délai JDBC, une recherche abandonnée par le client
+ * est annulée en base au lieu de s'y poursuivre.
  */
 @Service
 @Slf4j
@@ -23,7 +88,49 @@ import java.util.List;
 @Transactional
 public class BookService {
 
+    /** Nombre maximal d'identifiants par requête IN lors de l'hydratation */
+    private static final int HYDRATION_CHUNK_SIZE = 1000;
+
+    /** Taille maximale d'une tranche en pagination par curseur */
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    /** Nombre de décimales de la colonne prix */
+    private static final int PRIX_SCALE = 2;
+
+    /** Nombre maximal de résultats d'une recherche approchée */
+    private static final int MAX_FUZZY_RESULTS = 100;
+
+    /** Délai conseillé tant que l'index de recherche approchée est en construction */
+    private static final Duration FUZZY_INDEX_RETRY_AFTER = Duration.ofSeconds(5);
+
+    /** Délai conseillé tant que l'index des suggestions est en construction */
+    private static final Duration SUGGEST_INDEX_RETRY_AFTER = Duration.ofSeconds(5);
+
+    /** Taille maximale d'une page de recherche plein texte */
+    private static final int MAX_FULLTEXT_PAGE_SIZE = 100;
+
+    /** Rang maximal atteignable en recherche plein texte (le classement est recalculé à chaque page) */
+    private static final int MAX_FULLTEXT_WINDOW = 10_000;
+
+    /** Délai conseillé tant que l'index plein texte est en ouverture ou en construction */
+    private static final Duration FULLTEXT_INDEX_RETRY_AFTER = Duration.ofSeconds(5);
+
+    /** Ordre naturel des identifiants renvoyés par l'index */
+    private static final Sort ID_ASC = Sort.by("id");
+
+    /** Tri demandé sur le titre ou l'auteur → colonne de tri normalisée (casse et accents ignorés, tri naturel) */
+    private static final Map<String, String> SORT_COLUMNS = Map.of("titre", "titreTri", "auteur", "auteurTri");
+
     private final BookRepository bookRepository;
+    private final EntityManager entityManager;
+    private final TrigramIndex trigramIndex;
+    private final FuzzyIndex fuzzyIndex;
+    private final SuggestIndex suggestIndex;
+    private final FullTextIndex fullTextIndex;
+    private final CatalogStatistics catalogStatistics;
+    private final BookCache bookCache;
+    private final SearchResultCache searchResultCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Récupère tous les livres avec pagination
@@ -34,7 +141,7 @@ public class BookService {
     public Page<Book> getAllBooks(Pageable pageable) {
         log.info("Récupération de tous les livres avec pagination: page={}, size={}", 
                  pageable.getPageNumber(), pageable.getPageSize());
-        return bookRepository.findAll(pageable);
+        return bookRepository.findAll(sortKeys(pageable));
     }
 
     /**
@@ -48,14 +155,72 @@ public class BookService {
     }
 
     /**
-     * Récupère un livre par son identifiant
+     * Parcourt tous les livres en flux, sans les charger en mémoire
+     * Chaque livre est détaché du contexte de persistance dès sa lecture :
+     * la mémoire utilisée reste constante quel que soit le nombre de lignes
+     * Hors bulkhead : la connexion reste prise pendant tout le transfert
+     * @param consumer traitement appliqué à chaque livre (dans l'ordre des id)
+     * @return le nombre de livres parcourus
+     */
+    @Transactional(readOnly = true)
+    @BulkheadExempt
+    public long streamAllBooks(Consumer<Book> consumer) {
+        log.info("Parcours en flux de tous les livres");
+        long count = 0;
+        try (Stream<Book> books = bookRepository.streamAllBy()) {
+            for (Book book : (Iterable<Book>) books::iterator) {
+                entityManager.detach(book);
+                consumer.accept(book);
+                count++;
+            }
+        }
+        log.info("Parcours en flux terminé: {} livre(s)", count);
+        return count;
+    }
+
+    /**
+     * Récupère une tranche de livres par pagination par clé (curseur)
+     * Coût constant quelle que soit la profondeur, sans count(*)
+     * @param cursor position et clé de tri
+     * @param size taille de la tranche
+     * @return tranche de livres avec le curseur suivant
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Book> getAllBooks(BookCursor cursor, int size) {
+        log.info("Récupération de livres par curseur: tri={}, après id={}, size={}",
+                 cursor.getSortKey(), cursor.getLastId(), size);
+        Limit limit = cursorLimit(size);
+        List<Book> books = switch (cursor.getSortKey()) {
+            case ID -> bookRepository.findByIdGreaterThanOrderByIdAsc(cursor.lastIdOrZero(), limit);
+            case TITRE -> cursor.isFirst()
+                    ? bookRepository.findAllByOrderByTitreTriAscIdAsc(limit)
+                    : bookRepository.findByTitreTriAfter(cursor.getLastValue(), cursor.getLastId(), limit);
+            case PRIX -> cursor.isFirst()
+                    ? bookRepository.findAllByOrderByPrixAscIdAsc(limit)
+                    : bookRepository.findByPrixAfter(cursor.lastPrix(), cursor.getLastId(), limit);
+        };
+        return toCursorPage(books, cursor, size);
+    }
+
+    /**
+     * Récupère un livre par son identifiant (via le cache)
+     * Sans transaction : seul un défaut de cache prend une connexion
      * @param id l'identifiant du livre
-     * @return le livre trouvé
+     * @return le livre trouvé (copie détachée)
      * @throws ResourceNotFoundException si le livre n'existe pas
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Book getBookById(Long id) {
         log.info("Récupération du livre avec l'ID: {}", id);
+        // Le cache garde la valeur jusqu'à la prochaine écriture : jamais chargée depuis une réplique en retard
+        return bookCache.get(id, key -> DataSourceRouting.onPrimary(() -> findExistingBook(key)));
+    }
+
+    /**
+     * Charge un livre depuis la base (entité managée), sans passer par le cache
+     * @throws ResourceNotFoundException si le livre n'existe pas
+     */
+    private Book findExistingBook(Long id) {
         return bookRepository.findById(id)
                 .orElseThrow(() -> {
                     log.error("Livre non trouvé avec l'ID: {}", id);
@@ -72,10 +237,26 @@ public class BookService {
         log.info("Création d'un nouveau livre: titre={}, auteur={}, prix={}", 
                  book.getTitre(), book.getAuteur(), book.getPrix());
         Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.created(savedBook));
         log.info("Livre créé avec succès avec l'ID: {}", savedBook.getId());
         return savedBook;
     }
 
+    /**
+     * Crée plusieurs livres dans une seule transaction (un seul commit, INSERT en batch JDBC)
+     * Tout ou rien : une création en échec annule les autres
+     * @param books les livres à créer
+     * @return les livres créés, dans l'ordre reçu
+     */
+    public List<Book> saveBooks(List<Book> books) {
+        log.info("Création groupée de {} livre(s)", books.size());
+        List<Book> savedBooks = bookRepository.saveAll(books);
+        // Un seul flush : INSERT regroupés en batch JDBC
+        bookRepository.flush();
+        savedBooks.forEach(savedBook -> eventPublisher.publishEvent(BookChangedEvent.created(savedBook)));
+        return savedBooks;
+    }
+
     /**
      * Met à jour un livre existant
      * @param id l'identifiant du livre
@@ -84,14 +265,21 @@ public class BookService {
      * @throws ResourceNotFoundException si le livre n'existe pas
      */
     public Book updateBook(Long id, Book bookDetails) {
+        return updateBook(id, bookDetails, null);
+    }
+
+    /**
+     * Met à jour un livre existant en une seule requête UPDATE (sans lecture préalable)
+     * @param id l'identifiant du livre
+     * @param bookDetails les nouvelles données du livre
+     * @param expectedVersion version attendue (If-Match), null pour ne pas la contrôler
+     * @return le livre mis à jour
+     * @throws ResourceNotFoundException si le livre n'existe pas
+     * @throws VersionConflictException si le livre n'est plus à la version attendue
+     */
+    public Book updateBook(Long id, Book bookDetails, Long expectedVersion) {
         log.info("Mise à jour du livre avec l'ID: {}", id);
-        Book book = getBookById(id);
-        
-        book.setTitre(bookDetails.getTitre());
-        book.setAuteur(bookDetails.getAuteur());
-        book.setPrix(bookDetails.getPrix());
-        
-        Book updatedBook = bookRepository.save(book);
+        Book updatedBook = applyUpdate(id, bookDetails.getTitre(), bookDetails.getAuteur(), bookDetails.getPrix(), expectedVersion);
         log.info("Livre mis à jour avec succès: ID={}", id);
         return updatedBook;
     }
@@ -105,24 +293,36 @@ public class BookService {
      * @throws ResourceNotFoundException si le livre n'existe pas
      */
     public Book partialUpdateBook(Long id, Book bookDetails) {
+        return partialUpdateBook(id, bookDetails, null);
+    }
+
+    /**
+     * Met à jour partiellement un livre : seules les colonnes fournies figurent dans l'UPDATE,
+     * une modification concurrente des autres colonnes n'est donc pas écrasée
+     * @param id l'identifiant du livre
+     * @param bookDetails les données partielles à mettre à jour (null = pas de changement)
+     * @param expectedVersion version attendue (If-Match), null pour ne pas la contrôler
+     * @return le livre mis à jour
+     * @throws ResourceNotFoundException si le livre n'existe pas
+     * @throws VersionConflictException si le livre n'est plus à la version attendue
+     */
+    public Book partialUpdateBook(Long id, Book bookDetails, Long expectedVersion) {
         log.info("Mise à jour partielle du livre avec l'ID: {}", id);
-        Book book = getBookById(id);
-        
+
         // Mise à jour seulement si le champ n'est pas null et n'est pas vide (pour les chaînes)
-        if (bookDetails.getTitre() != null && !bookDetails.getTitre().isBlank()) {
-            log.debug("Mise à jour du titre: {} → {}", book.getTitre(), bookDetails.getTitre());
-            book.setTitre(bookDetails.getTitre());
+        String titre = bookDetails.getTitre() != null && !bookDetails.getTitre().isBlank() ? bookDetails.getTitre() : null;
+        String auteur = bookDetails.getAuteur() != null && !bookDetails.getAuteur().isBlank() ? bookDetails.getAuteur() : null;
+        BigDecimal prix = bookDetails.getPrix() != null && bookDetails.getPrix().compareTo(BigDecimal.ZERO) > 0 ? bookDetails.getPrix() : null;
+        if (titre == null && auteur == null && prix == null) {
+            log.debug("Aucun champ à modifier pour le livre ID={}", id);
+            Book book = getBookById(id);
+            if (expectedVersion != null && !expectedVersion.equals(book.getVersion())) {
+                throw versionConflict(id, expectedVersion);
+            }
+            return book;
         }
-        if (bookDetails.getAuteur() != null && !bookDetails.getAuteur().isBlank()) {
-            log.debug("Mise à jour de l'auteur: {} → {}", book.getAuteur(), bookDetails.getAuteur());
-            book.setAuteur(bookDetails.getAuteur());
-        }
-        if (bookDetails.getPrix() != null && bookDetails.getPrix().compareTo(BigDecimal.ZERO) > 0) {
-            log.debug("Mise à jour du prix: {} → {}", book.getPrix(), bookDetails.getPrix());
-            book.setPrix(bookDetails.getPrix());
-        }
-        
-        Book updatedBook = bookRepository.save(book);
+
+        Book updatedBook = applyUpdate(id, titre, auteur, prix, expectedVersion);
         log.info("Livre mis à jour partiellement avec succès: ID={}", id);
         return updatedBook;
     }
@@ -133,9 +333,22 @@ public class BookService {
      * @throws ResourceNotFoundException si le livre n'existe pas
      */
     public void deleteBook(Long id) {
+        deleteBook(id, null);
+    }
+
+    /**
+     * Supprime un livre en une seule requête DELETE ; le nombre de lignes supprimées décide du 404
+     * @param id l'identifiant du livre à supprimer
+     * @param expectedVersion version attendue (If-Match), null pour ne pas la contrôler
+     * @throws ResourceNotFoundException si le livre n'existe pas
+     * @throws VersionConflictException si le livre n'est plus à la version attendue
+     */
+    public void deleteBook(Long id, Long expectedVersion) {
         log.info("Suppression du livre avec l'ID: {}", id);
-        Book book = getBookById(id);
-        bookRepository.delete(book);
+        if (bookRepository.deleteByIdAndVersion(id, expectedVersion) == 0) {
+            throw notFoundOrConflict(id, expectedVersion);
+        }
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id, bookCache.peek(id)));
         log.info("Livre supprimé avec succès: ID={}", id);
     }
 
@@ -144,10 +357,15 @@ public class BookService {
      * @param titre partie du titre à rechercher
      * @return Liste des livres correspondant
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Book> searchByTitre(String titre) {
         log.info("Recherche de livres par titre: {}", titre);
-        return bookRepository.findByTitreContainingIgnoreCase(titre);
+        return searchResultCache.get("titre", searchKey(titre), () -> {
+            if (trigramIndex.isReady()) {
+                return hydrate(trigramIndex.searchTitre(titre));
+            }
+            return bookRepository.findByTitreRechercheContaining(TextNormalizer.fold(titre));
+        }, BookService::copyBooks);
     }
 
     /**
@@ -156,11 +374,38 @@ public class BookService {
      * @param pageable paramètres de pagination
      * @return Page de livres correspondant
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Page<Book> searchByTitre(String titre, Pageable pageable) {
         log.info("Recherche paginée de livres par titre: titre={}, page={}, size={}", 
                  titre, pageable.getPageNumber(), pageable.getPageSize());
-        return bookRepository.findByTitreContainingIgnoreCase(titre, pageable);
+        return searchResultCache.get("titre:page", searchKey(titre, pageable), () -> {
+            if (trigramIndex.isReady()) {
+                return hydrate(trigramIndex.searchTitre(titre), pageable,
+                        () -> bookRepository.findByTitreRechercheContaining(TextNormalizer.fold(titre), sortKeys(pageable)));
+            }
+            return bookRepository.findByTitreRechercheContaining(TextNormalizer.fold(titre), sortKeys(pageable));
+        }, BookService::copyPage);
+    }
+
+    /**
+     * Recherche les livres par titre avec pagination par curseur (tri par id)
+     * @param titre partie du titre à rechercher
+     * @param cursor position dans les résultats
+     * @param size taille de la tranche
+     * @return tranche de livres correspondant
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CursorPage<Book> searchByTitre(String titre, BookCursor cursor, int size) {
+        log.info("Recherche par curseur de livres par titre: titre={}, après id={}, size={}",
+                 titre, cursor.getLastId(), size);
+        requireIdSort(cursor);
+        return searchResultCache.get("titre:curseur", searchKey(titre, cursor.lastIdOrZero(), size), () -> {
+            List<Book> books = trigramIndex.isReady()
+                    ? hydrateAfter(trigramIndex.searchTitre(titre), cursor, size)
+                    : bookRepository.findByTitreRechercheContainingAndIdGreaterThanOrderByIdAsc(
+                            TextNormalizer.fold(titre), cursor.lastIdOrZero(), cursorLimit(size));
+            return toCursorPage(books, cursor, size);
+        }, BookService::copyCursorPage);
     }
 
     /**
@@ -168,10 +413,15 @@ public class BookService {
      * @param auteur partie de l'auteur à rechercher
      * @return Liste des livres correspondant
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<Book> searchByAuteur(String auteur) {
         log.info("Recherche de livres par auteur: {}", auteur);
-        return bookRepository.findByAuteurContainingIgnoreCase(auteur);
+        return searchResultCache.get("auteur", searchKey(auteur), () -> {
+            if (trigramIndex.isReady()) {
+                return hydrate(trigramIndex.searchAuteur(auteur));
+            }
+            return bookRepository.findByAuteurRechercheContaining(TextNormalizer.fold(auteur));
+        }, BookService::copyBooks);
     }
 
     /**
@@ -180,11 +430,171 @@ public class BookService {
      * @param pageable paramètres de pagination
      * @return Page de livres correspondant
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Page<Book> searchByAuteur(String auteur, Pageable pageable) {
         log.info("Recherche paginée de livres par auteur: auteur={}, page={}, size={}", 
                  auteur, pageable.getPageNumber(), pageable.getPageSize());
-        return bookRepository.findByAuteurContainingIgnoreCase(auteur, pageable);
+        return searchResultCache.get("auteur:page", searchKey(auteur, pageable), () -> {
+            if (trigramIndex.isReady()) {
+                return hydrate(trigramIndex.searchAuteur(auteur), pageable,
+                        () -> bookRepository.findByAuteurRechercheContaining(TextNormalizer.fold(auteur), sortKeys(pageable)));
+            }
+            return bookRepository.findByAuteurRechercheContaining(TextNormalizer.fold(auteur), sortKeys(pageable));
+        }, BookService::copyPage);
+    }
+
+    /**
+     * Recherche les livres par auteur avec pagination par curseur (tri par id)
+     * @param auteur partie de l'auteur à rechercher
+     * @param cursor position dans les résultats
+     * @param size taille de la tranche
+     * @return tranche de livres correspondant
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CursorPage<Book> searchByAuteur(String auteur, BookCursor cursor, int size) {
+        log.info("Recherche par curseur de livres par auteur: auteur={}, après id={}, size={}",
+                 auteur, cursor.getLastId(), size);
+        requireIdSort(cursor);
+        return searchResultCache.get("auteur:curseur", searchKey(auteur, cursor.lastIdOrZero(), size), () -> {
+            List<Book> books = trigramIndex.isReady()
+                    ? hydrateAfter(trigramIndex.searchAuteur(auteur), cursor, size)
+                    : bookRepository.findByAuteurRechercheContainingAndIdGreaterThanOrderByIdAsc(
+                            TextNormalizer.fold(auteur), cursor.lastIdOrZero(), cursorLimit(size));
+            return toCursorPage(books, cursor, size);
+        }, BookService::copyCursorPage);
+    }
+
+    /**
+     * Recherche par mot-clé sur le titre OU l'auteur, paginée (liste web)
+     * Un seul parcours de l'index (ou une seule requête) ; seuls les livres de la page sont chargés
+     * @param keyword partie du titre ou de l'auteur
+     * @param pageable paramètres de pagination
+     * @return Page de livres correspondant à l'un des deux critères
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Page<Book> searchByKeyword(String keyword, Pageable pageable) {
+        log.info("Recherche par mot-clé (titre OU auteur): keyword={}, page={}, size={}",
+                 keyword, pageable.getPageNumber(), pageable.getPageSize());
+        return searchResultCache.get("mot-cle:page", searchKey(keyword, pageable), () -> {
+            if (trigramIndex.isReady()) {
+                return hydrate(trigramIndex.searchTitreOrAuteur(keyword), pageable,
+                        () -> bookRepository.findByTitreOrAuteurContaining(TextNormalizer.fold(keyword), sortKeys(pageable)));
+            }
+            return bookRepository.findByTitreOrAuteurContaining(TextNormalizer.fold(keyword), sortKeys(pageable));
+        }, BookService::copyPage);
+    }
+
+    /**
+     * Recherche multicritère : toute combinaison de titre, auteur et plage de prix
+     * Une seule requête dynamique (Specifications), seuls les critères fournis sont appliqués
+     * @param titre partie du titre (optionnel)
+     * @param auteur partie de l'auteur (optionnel)
+     * @param minPrix prix minimum inclus (optionnel)
+     * @param maxPrix prix maximum inclus (optionnel)
+     * @param pageable paramètres de pagination et de tri
+     * @return Page de livres correspondant à tous les critères fournis
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Page<Book> searchBooks(String titre, String auteur, BigDecimal minPrix, BigDecimal maxPrix, Pageable pageable) {
+        log.info("Recherche multicritère: titre={}, auteur={}, prix=[{}, {}], page={}, size={}",
+                 titre, auteur, minPrix, maxPrix, pageable.getPageNumber(), pageable.getPageSize());
+        if (minPrix != null && maxPrix != null && minPrix.compareTo(maxPrix) > 0) {
+            throw new IllegalArgumentException("Le prix minimum ne peut pas dépasser le prix maximum");
+        }
+        // Même normalisation que BookSpecifications : critère vide ignoré, espaces de bord retirés
+        return searchResultCache.get("multicritere:page",
+                searchKey(criterion(titre), criterion(auteur), amount(minPrix), amount(maxPrix), pageable),
+                () -> bookRepository.findAll(BookSpecifications.matching(titre, auteur, minPrix, maxPrix), sortKeys(pageable)),
+                BookService::copyPage);
+    }
+
+    /**
+     * Recherche approchée sur les mots des titres et auteurs (fautes de frappe tolérées)
+     * Résolue uniquement par FuzzyIndex : la base ne sert qu'à charger les livres trouvés par identifiant
+     * @param query mots recherchés
+     * @param limit nombre maximal de résultats
+     * @return livres classés par distance croissante
+     * @throws ServiceOverloadedException si l'index n'est pas encore construit (jamais de parcours de la table)
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public FuzzySearchResult fuzzySearch(String query, int limit) {
+        log.info("Recherche approchée: query={}, limit={}", query, limit);
+        if (limit < 1 || limit > MAX_FUZZY_RESULTS) {
+            throw new IllegalArgumentException("La limite doit être comprise entre 1 et " + MAX_FUZZY_RESULTS);
+        }
+        if (!fuzzyIndex.isReady()) {
+            throw new ServiceOverloadedException("Index de recherche approchée en cours de construction", FUZZY_INDEX_RETRY_AFTER);
+        }
+        FuzzyIndex.Result result = fuzzyIndex.search(query, limit);
+
+        // Un livre supprimé entre la recherche et le chargement est ignoré
+        Map<Long, Book> books = hydrate(result.matches().stream().map(FuzzyIndex.Match::id).sorted().toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, book -> book));
+        List<FuzzyMatch> matches = result.matches().stream()
+                .filter(match -> books.containsKey(match.id()))
+                .map(match -> new FuzzyMatch(books.get(match.id()), match.distance()))
+                .toList();
+        if (!result.complete()) {
+            log.warn("Recherche approchée interrompue par le budget de temps: query={}, {} résultat(s)", query, matches.size());
+        }
+        return new FuzzySearchResult(matches, result.complete());
+    }
+
+    /**
+     * Recherche plein texte classée sur les mots des titres et auteurs
+     * Résolue par FullTextIndex : la base ne sert qu'à charger les livres de la page par identifiant
+     * @param query mots recherchés (au moins un doit figurer dans le titre ou l'auteur)
+     * @param pageable page et taille (le tri est celui de la pertinence)
+     * @return page de livres classés par pertinence décroissante
+     * @throws ServiceOverloadedException si l'index n'est pas encore ouvert
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Page<FullTextMatch> fullTextSearch(String query, Pageable pageable) {
+        log.info("Recherche plein texte: query={}, page={}, size={}", query, pageable.getPageNumber(), pageable.getPageSize());
+        if (pageable.getPageSize() > MAX_FULLTEXT_PAGE_SIZE) {
+            throw new IllegalArgumentException("La taille de page ne peut pas dépasser " + MAX_FULLTEXT_PAGE_SIZE);
+        }
+        if (pageable.getOffset() + pageable.getPageSize() > MAX_FULLTEXT_WINDOW) {
+            throw new IllegalArgumentException("La recherche plein texte est limitée aux " + MAX_FULLTEXT_WINDOW + " premiers résultats");
+        }
+        if (!fullTextIndex.isReady()) {
+            throw new ServiceOverloadedException("Index plein texte en cours d'ouverture", FULLTEXT_INDEX_RETRY_AFTER);
+        }
+        FullTextIndex.Result result = fullTextIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+
+        // Un livre supprimé entre la recherche et le chargement est ignoré
+        Map<Long, Book> books = hydrate(result.hits().stream().map(FullTextIndex.Hit::id).sorted().toList())
+                .stream()
+                .collect(Collectors.toMap(Book::getId, book -> book));
+        List<FullTextMatch> matches = result.hits().stream()
+                .filter(hit -> books.containsKey(hit.id()))
+                .map(hit -> new FullTextMatch(books.get(hit.id()), hit.score()))
+                .toList();
+        return new PageImpl<>(matches, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()), result.total());
+    }
+
+    /**
+     * Suggestions de saisie : titres et/ou auteurs dont un mot commence par le préfixe
+     * Résolues uniquement par SuggestIndex, sans transaction ni accès à la base
+     * @param prefix début de saisie
+     * @param type "titre", "auteur" ou null pour les deux
+     * @param limit nombre maximal de suggestions
+     * @return suggestions, les plus fréquentes d'abord
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<BookSuggestion> suggest(String prefix, String type, int limit) {
+        log.debug("Suggestions: prefix={}, type={}, limit={}", prefix, type, limit);
+        if (type != null && !type.equals("titre") && !type.equals("auteur")) {
+            throw new IllegalArgumentException("Le type doit être titre ou auteur");
+        }
+        if (limit < 1 || limit > SuggestIndex.MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("La limite doit être comprise entre 1 et " + SuggestIndex.MAX_SUGGESTIONS);
+        }
+        if (!suggestIndex.isReady()) {
+            throw new ServiceOverloadedException("Index des suggestions en cours de construction", SUGGEST_INDEX_RETRY_AFTER);
+        }
+        return suggestIndex.suggest(prefix, !"auteur".equals(type), !"titre".equals(type), limit);
     }
 
     /**
@@ -195,11 +605,40 @@ public class BookService {
      * @return Page de livres correspondant aux deux critères
      */
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Page<Book> searchByTitreAndAuteur(String titre, String auteur, Pageable pageable) {
         log.info("Recherche combinée (titre ET auteur): titre={}, auteur={}, page={}, size={}", 
                  titre, auteur, pageable.getPageNumber(), pageable.getPageSize());
-        return bookRepository.findByTitreAndAuteurContaining(titre, auteur, pageable);
+        return searchResultCache.get("titre-auteur:page", searchKey(titre, auteur, pageable), () -> {
+            if (trigramIndex.isReady()) {
+                return hydrate(trigramIndex.searchTitreAndAuteur(titre, auteur), pageable,
+                        () -> bookRepository.findByTitreAndAuteurContaining(TextNormalizer.fold(titre), TextNormalizer.fold(auteur), sortKeys(pageable)));
+            }
+            return bookRepository.findByTitreAndAuteurContaining(TextNormalizer.fold(titre), TextNormalizer.fold(auteur), sortKeys(pageable));
+        }, BookService::copyPage);
+    }
+
+    /**
+     * Recherche combinée titre ET auteur avec pagination par curseur (tri par id)
+     * @param titre partie du titre
+     * @param auteur partie de l'auteur
+     * @param cursor position dans les résultats
+     * @param size taille de la tranche
+     * @return tranche de livres correspondant aux deux critères
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CursorPage<Book> searchByTitreAndAuteur(String titre, String auteur, BookCursor cursor, int size) {
+        log.info("Recherche combinée par curseur: titre={}, auteur={}, après id={}, size={}",
+                 titre, auteur, cursor.getLastId(), size);
+        requireIdSort(cursor);
+        return searchResultCache.get("titre-auteur:curseur",
+                searchKey(titre, auteur, cursor.lastIdOrZero(), size), () -> {
+            List<Book> books = trigramIndex.isReady()
+                    ? hydrateAfter(trigramIndex.searchTitreAndAuteur(titre, auteur), cursor, size)
+                    : bookRepository.findByTitreAndAuteurContainingAfter(
+                            TextNormalizer.fold(titre), TextNormalizer.fold(auteur), cursor.lastIdOrZero(), cursorLimit(size));
+            return toCursorPage(books, cursor, size);
+        }, BookService::copyCursorPage);
     }
 
     /**
@@ -224,7 +663,24 @@ public class BookService {
     public Page<Book> searchByMaxPrice(BigDecimal prix, Pageable pageable) {
         log.info("Recherche paginée avec prix max: prix={}, page={}, size={}", 
                  prix, pageable.getPageNumber(), pageable.getPageSize());
-        return bookRepository.findByPrixLessThanEqual(prix, pageable);
+        return bookRepository.findByPrixLessThanEqual(prix, sortKeys(pageable));
+    }
+
+    /**
+     * Recherche les livres avec un prix maximum, pagination par curseur (tri par id)
+     * @param prix le prix maximum
+     * @param cursor position dans les résultats
+     * @param size taille de la tranche
+     * @return tranche de livres avec un prix inférieur ou égal
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Book> searchByMaxPrice(BigDecimal prix, BookCursor cursor, int size) {
+        log.info("Recherche par curseur avec prix max: prix={}, après id={}, size={}",
+                 prix, cursor.getLastId(), size);
+        requireIdSort(cursor);
+        List<Book> books = bookRepository.findByPrixLessThanEqualAndIdGreaterThanOrderByIdAsc(
+                prix, cursor.lastIdOrZero(), cursorLimit(size));
+        return toCursorPage(books, cursor, size);
     }
 
     /**
@@ -248,17 +704,234 @@ public class BookService {
     public Page<Book> searchByMinPrice(BigDecimal prix, Pageable pageable) {
         log.info("Recherche paginée avec prix min: prix={}, page={}, size={}", 
                  prix, pageable.getPageNumber(), pageable.getPageSize());
-        return bookRepository.findByPrixGreaterThanEqual(prix, pageable);
+        return bookRepository.findByPrixGreaterThanEqual(prix, sortKeys(pageable));
+    }
+
+    /**
+     * Recherche les livres avec un prix minimum, pagination par curseur (tri par id)
+     * @param prix le prix minimum
+     * @param cursor position dans les résultats
+     * @param size taille de la tranche
+     * @return tranche de livres avec un prix supérieur ou égal
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Book> searchByMinPrice(BigDecimal prix, BookCursor cursor, int size) {
+        log.info("Recherche par curseur avec prix min: prix={}, après id={}, size={}",
+                 prix, cursor.getLastId(), size);
+        requireIdSort(cursor);
+        List<Book> books = bookRepository.findByPrixGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+                prix, cursor.lastIdOrZero(), cursorLimit(size));
+        return toCursorPage(books, cursor, size);
     }
 
     /**
      * Compte le nombre total de livres
      * @return le nombre de livres
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public long countBooks() {
         log.info("Comptage du nombre total de livres");
+        // Statistiques maintenues en mémoire : évite un count(*) à chaque affichage
+        if (catalogStatistics.isReady()) {
+            return catalogStatistics.count();
+        }
         return bookRepository.count();
     }
 
+    /**
+     * Statistiques du catalogue : nombre de livres, prix min/max/moyen, livres par auteur
+     * Lues en mémoire ; calculées en base (deux requêtes d'agrégat) tant que les index se construisent
+     * @return les statistiques
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CatalogStats getCatalogStatistics() {
+        log.info("Statistiques du catalogue");
+        if (catalogStatistics.isReady()) {
+            return catalogStatistics.snapshot();
+        }
+        CatalogTotals totals = bookRepository.summarizeCatalog();
+        Map<String, Long> byAuteur = bookRepository.countByAuteur().stream()
+                .collect(Collectors.toMap(AuteurCount::getAuteur, AuteurCount::getCount));
+        return CatalogStats.of(totals.getCount(), totals.getMin(), totals.getMax(), totals.getTotal(), byAuteur);
+    }
+
+    /**
+     * UPDATE direct des colonnes non nulles, version incrémentée
+     *
+     * Si le cache connaît l'état courant du livre, sa version sert de condition :
+     * le livre mis à jour se déduit alors de cet état, sans aucune lecture (une seule requête).
+     * Sinon (cache absent ou obsolète), le livre est relu après l'UPDATE pour la réponse.
+     */
+    private Book applyUpdate(Long id, String titre, String auteur, BigDecimal prix, Long expectedVersion) {
+        // Même échelle que la colonne : le livre déduit sans relecture est identique à la ligne en base
+        BigDecimal price = prix != null ? prix.setScale(PRIX_SCALE, RoundingMode.HALF_UP) : null;
+        Book known = bookCache.peek(id);
+        if (known != null && expectedVersion != null && !expectedVersion.equals(known.getVersion())) {
+            known = null;
+        }
+        Long version = expectedVersion != null ? expectedVersion : known != null ? known.getVersion() : null;
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+        int rows = bookRepository.updateFields(id, titre, auteur, price, version, now);
+        if (rows == 0 && expectedVersion == null && version != null) {
+            // Version en cache obsolète (écriture concurrente) : pas de contrôle demandé par le client
+            known = null;
+            rows = bookRepository.updateFields(id, titre, auteur, price, null, now);
+        }
+        if (rows == 0) {
+            throw notFoundOrConflict(id, expectedVersion);
+        }
+
+        Book updatedBook;
+        if (known != null) {
+            updatedBook = BookChangedEvent.snapshot(known);
+            if (titre != null) {
+                updatedBook.setTitre(titre);
+            }
+            if (auteur != null) {
+                updatedBook.setAuteur(auteur);
+            }
+            if (price != null) {
+                updatedBook.setPrix(price);
+            }
+            updatedBook.setVersion(known.getVersion() + 1);
+            updatedBook.setLastModified(now);
+        } else {
+            updatedBook = findExistingBook(id);
+        }
+        eventPublisher.publishEvent(BookChangedEvent.updated(known, updatedBook));
+        return updatedBook;
+    }
+
+    /**
+     * Aucune ligne touchée : livre absent (404) ou présent à une autre version (412)
+     */
+    private RuntimeException notFoundOrConflict(Long id, Long expectedVersion) {
+        if (expectedVersion != null && bookRepository.existsById(id)) {
+            return versionConflict(id, expectedVersion);
+        }
+        log.error("Livre non trouvé avec l'ID: {}", id);
+        return new ResourceNotFoundException("Livre non trouvé avec l'ID: " + id);
+    }
+
+    private static VersionConflictException versionConflict(Long id, Long expectedVersion) {
+        return new VersionConflictException("Le livre " + id + " n'est plus à la version " + expectedVersion);
+    }
+
+    /**
+     * Charge les livres trouvés par l'index, par tranches de HYDRATION_CHUNK_SIZE identifiants
+     * @param ids identifiants triés
+     * @return livres triés par identifiant
+     */
+    private List<Book> hydrate(List<Long> ids) {
+        List<Book> books = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += HYDRATION_CHUNK_SIZE) {
+            int to = Math.min(from + HYDRATION_CHUNK_SIZE, ids.size());
+            books.addAll(bookRepository.findAllById(ids.subList(from, to)));
+        }
+        books.sort(Comparator.comparing(Book::getId));
+        return books;
+    }
+
+    /**
+     * Construit une page à partir des identifiants trouvés par l'index
+     * - sans tri ou tri par id croissant : découpage en mémoire, seuls les livres de la page sont chargés
+     * - avec tri : tri délégué à la base via une requête IN, si l'ensemble reste raisonnable
+     * - sinon : requête LIKE d'origine
+     */
+    private Page<Book> hydrate(List<Long> ids, Pageable pageable, Supplier<Page<Book>> fallback) {
+        if (pageable.getSort().isUnsorted() || pageable.getSort().equals(ID_ASC)) {
+            int from = (int) Math.min(pageable.getOffset(), ids.size());
+            int to = Math.min(from + pageable.getPageSize(), ids.size());
+            return new PageImpl<>(hydrate(ids.subList(from, to)), pageable, ids.size());
+        }
+        if (ids.size() <= HYDRATION_CHUNK_SIZE) {
+            return bookRepository.findByIdIn(ids, sortKeys(pageable));
+        }
+        return fallback.get();
+    }
+
+    /**
+     * Tranche d'identifiants (triés) située après le curseur, puis chargement des livres
+     * On lit un élément de plus que demandé pour savoir s'il existe une tranche suivante
+     */
+    private List<Book> hydrateAfter(List<Long> ids, BookCursor cursor, int size) {
+        cursorLimit(size);
+        int position = Collections.binarySearch(ids, cursor.lastIdOrZero());
+        int from = position >= 0 ? position + 1 : -position - 1;
+        int to = Math.min(from + size + 1, ids.size());
+        return hydrate(ids.subList(from, to));
+    }
+
+    /**
+     * Remplace les tris sur titre et auteur par leurs clés de tri indexées ; l'id départage les égalités
+     * (deux titres distincts peuvent avoir la même clé : "Été" et "ete")
+     */
+    private static Pageable sortKeys(Pageable pageable) {
+        Sort requested = pageable.getSort();
+        if (requested.stream().noneMatch(order -> SORT_COLUMNS.containsKey(order.getProperty()))) {
+            return pageable;
+        }
+        Sort sort = Sort.by(requested.stream()
+                .map(order -> order.withProperty(SORT_COLUMNS.getOrDefault(order.getProperty(), order.getProperty())))
+                .toList());
+        if (requested.getOrderFor("id") == null) {
+            sort = sort.and(ID_ASC);
+        }
+        return pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort)
+                : Pageable.unpaged(sort);
+    }
+
+    private static Limit cursorLimit(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("La taille doit être comprise entre 1 et " + MAX_CURSOR_PAGE_SIZE);
+        }
+        return Limit.of(size + 1);
+    }
+
+    private static void requireIdSort(BookCursor cursor) {
+        if (cursor.getSortKey() != BookCursor.SortKey.ID) {
+            throw new IllegalArgumentException("Les recherches par curseur ne supportent que le tri par id");
+        }
+    }
+
+    private static CursorPage<Book> toCursorPage(List<Book> books, BookCursor cursor, int size) {
+        boolean hasNext = books.size() > size;
+        List<Book> content = hasNext ? new ArrayList<>(books.subList(0, size)) : books;
+        String nextCursor = hasNext ? cursor.next(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, size, nextCursor, hasNext);
+    }
+
+    /**
+     * Clé de SearchResultCache : termes textuels normalisés (casse ignorée), autres paramètres tels quels
+     */
+    private static List<Object> searchKey(Object... params) {
+        List<Object> key = new ArrayList<>(params.length);
+        for (Object param : params) {
+            key.add(param instanceof String term ? SearchResultCache.normalize(term) : param);
+        }
+        return key;
+    }
+
+    private static String criterion(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return value == null ? null : value.stripTrailingZeros();
+    }
+
+    private static List<Book> copyBooks(List<Book> books) {
+        return books.stream().map(BookChangedEvent::snapshot).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static Page<Book> copyPage(Page<Book> page) {
+        return new PageImpl<>(copyBooks(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    private static CursorPage<Book> copyCursorPage(CursorPage<Book> page) {
+        return new CursorPage<>(copyBooks(page.getContent()), page.getSize(), page.getNextCursor(), page.isHasNext());
+    }
+
 }
@@ -1,5 +1,6 @@
 package bf.isge.gsn.service;
 
+import bf.isge.gsn.datasource.DataSourceRouting;
 import bf.isge.gsn.entity.AppUser;
 import bf.isge.gsn.repository.AppUserRepository;
 import lombok.RequiredArgsConstructor;
@@ -23,7 +24,8 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        AppUser appUser = appUserRepository.findByUsername(username)
+        // Compte tout juste créé ou mot de passe modifié : lecture sur la primaire, jamais sur une réplique
+        AppUser appUser = DataSourceRouting.onPrimary(() -> appUserRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé : " + username));
 
         return new User(
@@ -0,0 +1,240 @@
+package bf.isge.gsn.writebehind;
+
+import bf.isge.gsn.datasource.ReadYourWrites;
+import bf.isge.gsn.entity.Book;
+import bf.isge.gsn.exception.ServiceOverloadedException;
+import bf.isge.gsn.service.BookService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Création de livres avec validation groupée (write-behind, group commit)
+ *
+ * Sans écriture différée (bookstore.write-behind.enabled=false), chaque création est
+ * une transaction et un commit. Activée :
+ * - la création est déposée dans une file bornée (queue-capacity) ; file pleine, l'appelant
+ *   attend au plus max-wait puis reçoit ServiceOverloadedException (503 + Retry-After)
+ * - un thread unique vide la file par lots d'au plus max-batch-size livres, écrits dans une
+ *   seule transaction (BookService.saveBooks) : un commit par lot au lieu d'un par livre
+ * - chaque appelant est débloqué au commit de son lot, avec le livre créé ou son erreur
+ * - un lot en échec est rejoué livre par livre : un titre en double n'annule pas les autres
+ *
+ * Pas de temporisation avant écriture : un livre seul est écrit aussitôt, les lots se forment
+ * d'eux-mêmes pendant le commit précédent, d'autant plus gros que le débit est élevé.
+ *
+ * Hors du package service : l'appelant qui attend son lot ne retient ni permis du bulkhead
+ * ni connexion.
+ */
+@Component
+@Slf4j
+public class BookWriteBehind implements MeterBinder {
+
+    /** Attente maximale du thread d'écriture sur une file vide (vérification de l'arrêt) */
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(200);
+
+    private final BookService bookService;
+    private final ObjectProvider<ReadYourWrites> readYourWrites;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final BlockingQueue<PendingBook> queue;
+    private volatile boolean running;
+    private Thread writer;
+    private DistributionSummary batchSizes;
+    private Counter rejected;
+
+    public BookWriteBehind(BookService bookService,
+                           ObjectProvider<ReadYourWrites> readYourWrites,
+                           @Value("${bookstore.write-behind.enabled:false}") boolean enabled,
+                           @Value("${bookstore.write-behind.queue-capacity:10000}") int queueCapacity,
+                           @Value("${bookstore.write-behind.max-batch-size:500}") int maxBatchSize,
+                           @Value("${bookstore.write-behind.max-wait:1s}") Duration maxWait) {
+        this.bookService = bookService;
+        this.readYourWrites = readYourWrites;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "book-write-behind");
+        writer.start();
+        log.info("Création différée des livres: file de {} livre(s), lots de {} au plus, attente max {}",
+                 queue.remainingCapacity(), maxBatchSize, maxWait);
+    }
+
+    /**
+     * Arrêt : plus aucune création acceptée, la file est écrite avant la fermeture de la base
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join();
+        // Dépôt concurrent de l'arrêt, arrivé après la dernière lecture de la file
+        PendingBook orphan;
+        while ((orphan = queue.poll()) != null) {
+            orphan.result().completeExceptionally(new ServiceOverloadedException("Écriture des livres arrêtée", maxWait));
+        }
+        log.info("Création différée des livres arrêtée");
+    }
+
+    /**
+     * Crée un livre, directement ou via la file d'écriture différée
+     * @param book le livre à créer (déjà validé)
+     * @return le livre créé avec son ID généré, une fois son lot validé
+     * @throws ServiceOverloadedException si la file reste pleine au-delà de max-wait
+     */
+    public Book saveBook(Book book) {
+        if (!enabled) {
+            return bookService.saveBook(book);
+        }
+        PendingBook pending = new PendingBook(book, new CompletableFuture<>());
+        enqueue(pending);
+        Book saved;
+        try {
+            // Attente non interruptible : une fois en file, le livre sera écrit de toute façon
+            saved = pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        // Le commit a eu lieu sur le thread d'écriture, hors de la requête de l'utilisateur
+        readYourWrites.ifAvailable(ReadYourWrites::recordCurrentUserWrite);
+        return saved;
+    }
+
+    private void enqueue(PendingBook pending) {
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(pending, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException("Attente de la file d'écriture interrompue", maxWait);
+        }
+        if (!accepted) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            throw new ServiceOverloadedException(running
+                    ? "File d'écriture des livres pleine (" + (queue.size() + queue.remainingCapacity()) + " au maximum)"
+                    : "Écriture des livres en cours d'arrêt", maxWait);
+        }
+    }
+
+    /**
+     * Boucle du thread d'écriture : jusqu'à l'arrêt, puis tant que la file n'est pas vide
+     */
+    private void drain() {
+        List<PendingBook> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            PendingBook first;
+            try {
+                first = queue.poll(POLL_INTERVAL.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                // Seul stop() arrête le thread, après avoir vidé la file
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, maxBatchSize - 1);
+            try {
+                write(batch);
+            } catch (Throwable e) {
+                log.error("Échec inattendu de l'écriture d'un lot de {} livre(s)", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingBook> batch) {
+        if (batchSizes != null) {
+            batchSizes.record(batch.size());
+        }
+        List<Book> books = batch.stream().map(PendingBook::book).toList();
+        List<Book> saved;
+        try {
+            saved = bookService.saveBooks(books);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            log.warn("Échec du lot ({} livres), reprise livre par livre: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeAlone);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(saved.get(i));
+        }
+    }
+
+    private void writeAlone(PendingBook pending) {
+        Book book = pending.book();
+        // Les id et versions attribués pendant la tentative annulée ne sont plus valides
+        book.setId(null);
+        book.setVersion(null);
+        try {
+            pending.result().complete(bookService.saveBook(book));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Livre en attente d'écriture et résultat attendu par l'appelant
+     */
+    private record PendingBook(Book book, CompletableFuture<Book> result) {
+    }
+
+    /**
+     * bookstore.write-behind.queue / batch / rejected
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        Gauge.builder("bookstore.write-behind.queue", queue, BlockingQueue::size)
+                .description("Livres en attente d'écriture")
+                .register(registry);
+        batchSizes = DistributionSummary.builder("bookstore.write-behind.batch")
+                .description("Livres écrits par transaction (un commit par lot)")
+                .baseUnit("books")
+                .register(registry);
+        rejected = Counter.builder("bookstore.write-behind.rejected")
+                .description("Créations refusées, file pleine au-delà de l'attente maximale")
+                .register(registry);
+    }
+}
@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Construit l'application extraite et son archive CDS (classes chargées au démarrage, déjà analysées et vérifiées)
+#
+# Usage : src/startup/build-cds-archive.sh (après mvn -Pstartup package)
+# Résultat : target/startup/application/{gestion-livres-0.0.1-SNAPSHOT.jar, lib/, application.jsa}
+# L'archive n'est valable que pour ce JDK et ces jars : la reconstruire à chaque build
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+JAR=target/gestion-livres-0.0.1-SNAPSHOT.jar
+APP=target/startup/application
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR absent : lancer d'abord mvn -Pstartup package" >&2
+    exit 1
+fi
+
+# Jar extrait (classpath de jars simples) : CDS ne sait pas archiver les classes des jars imbriqués
+rm -rf "$APP"
+"$JAVA" -Djarmode=tools -jar "$JAR" extract --destination "$APP"
+
+# Exécution d'entraînement : contexte complet (AOT, profil startup) sur H2 en mémoire, arrêt après le refresh
+cd "$APP"
+"$JAVA" -XX:ArchiveClassesAtExit=application.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar gestion-livres-0.0.1-SNAPSHOT.jar --spring.profiles.active=startup \
+    --spring.datasource.url="jdbc:h2:mem:cds" --spring.jpa.hibernate.ddl-auto=create \
+    --logging.level.root=WARN
+
+echo "Archive CDS : $APP/application.jsa"
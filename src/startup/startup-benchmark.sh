@@ -0,0 +1,90 @@
+#!/usr/bin/env bash
+# Mesure le temps jusqu'à la première requête réussie, du lancement de la JVM au premier 200 sur /api/books/count
+#
+# Modes comparés :
+#   baseline        : jar exécutable, configuration par défaut (springdoc, ddl-auto=update, initialisations synchrones)
+#   startup         : jar extrait, profil startup (initialisations différées, ni DDL ni analyse springdoc)
+#   startup-aot     : + contexte pré-calculé au build (-Dspring.aot.enabled=true)
+#   startup-aot-cds : + archive CDS (-XX:SharedArchiveFile)
+#
+# Usage : src/startup/startup-benchmark.sh [modes...]
+# Journaux au niveau INFO dans tous les modes (la configuration par défaut est en DEBUG)
+# Variables : RUNS (répétitions par mode, 5), PORT (8080), DB_URL (base H2 fichier préparée par le script)
+# Résultats : target/startup/results.csv (une ligne par lancement), médiane par mode en fin de sortie
+set -euo pipefail
+
+cd "$(dirname "$0")/../.."
+
+if [ $# -gt 0 ]; then MODES=("$@"); else MODES=(baseline startup startup-aot startup-aot-cds); fi
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+OUT=$PWD/target/startup
+DB_URL=${DB_URL:-jdbc:h2:file:$OUT/db/bookstoredb}
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+JAR=$PWD/target/gestion-livres-0.0.1-SNAPSHOT.jar
+APP=$OUT/application
+
+mvn -B -q -Pstartup -DskipTests clean package
+src/startup/build-cds-archive.sh
+rm -f "$OUT/results.csv"
+echo "mode,run,first_request_ms,started_in_s" > "$OUT/results.csv"
+
+APP_PID=
+stop_app() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=
+    fi
+}
+trap stop_app EXIT
+
+# Lance l'application dans le mode donné et attend la première requête réussie
+# ELAPSED_MS : temps écoulé depuis le lancement de la JVM
+launch() {
+    local mode=$1 log=$2
+    local -a cmd
+    case "$mode" in
+        baseline)        cmd=("$JAVA" -jar "$JAR" --spring.profiles.active=default) ;;
+        startup)         cmd=("$JAVA" -jar gestion-livres-0.0.1-SNAPSHOT.jar --spring.profiles.active=startup) ;;
+        startup-aot)     cmd=("$JAVA" -Dspring.aot.enabled=true -jar gestion-livres-0.0.1-SNAPSHOT.jar
+                              --spring.profiles.active=startup) ;;
+        startup-aot-cds) cmd=("$JAVA" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true
+                              -jar gestion-livres-0.0.1-SNAPSHOT.jar --spring.profiles.active=startup) ;;
+        *) echo "Mode inconnu : $mode" >&2; exit 1 ;;
+    esac
+    local start
+    start=$(date +%s%N)
+    (cd "$APP" && exec "${cmd[@]}" --server.port="$PORT" --spring.datasource.url="$DB_URL" \
+        --bookstore.search.fulltext.directory="$OUT/fulltext" --logging.level.bf.isge.gsn=INFO \
+        --logging.level.org.springframework.web=INFO --logging.level.org.hibernate.SQL=INFO) > "$log" 2>&1 &
+    APP_PID=$!
+    until curl -sf -o /dev/null -u admin:admin123 "http://localhost:$PORT/api/books/count"; do
+        kill -0 "$APP_PID" 2>/dev/null || { tail -40 "$log" >&2; exit 1; }
+        sleep 0.01
+    done
+    ELAPSED_MS=$(( ($(date +%s%N) - start) / 1000000 ))
+}
+
+# Préparation de la base (schéma, compte admin) et de l'index plein texte : les modes startup ne créent rien
+launch baseline "$OUT/app-prepare.log"
+stop_app
+
+for MODE in "${MODES[@]}"; do
+    for RUN in $(seq 1 "$RUNS"); do
+        LOG="$OUT/app-$MODE-$RUN.log"
+        launch "$MODE" "$LOG"
+        STARTED=$(sed -n 's/.*Started BookStoreApplication in \([0-9.]*\) seconds.*/\1/p' "$LOG" | head -1)
+        stop_app
+        echo "$MODE,$RUN,$ELAPSED_MS,${STARTED:-}" >> "$OUT/results.csv"
+        echo "$MODE #$RUN : première requête réussie après $ELAPSED_MS ms (Started in ${STARTED:-?} s)"
+    done
+done
+
+echo
+echo "Médiane du temps jusqu'à la première requête réussie (ms)"
+for MODE in "${MODES[@]}"; do
+    MEDIAN=$(awk -F, -v m="$MODE" '$1 == m {print $3}' "$OUT/results.csv" | sort -n \
+        | awk '{v[NR] = $1} END {print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2}')
+    printf '%-16s %s\n' "$MODE" "$MEDIAN"
+done